@@ -0,0 +1,108 @@
+import java.lang.management.*;
+import java.util.*;
+
+// A small benchmark harness in the style of JMH, for code in the default
+// package (which JMH refuses to benchmark). Each benchmark is warmed up and
+// then measured for a fixed time, and reported as the average time and
+// throughput per call, the bytes allocated per call on every thread and the
+// allocation rate (like JMH's GC profiler), and the collections that
+// happened meanwhile.
+// The times can be changed with -Dbench.warmup and -Dbench.time, in seconds.
+class Bench {
+  // every benchmark runs at least this many calls in each phase
+  static final int MIN_CALLS = 3;
+
+  final long warmupNanos;
+  final long measureNanos;
+  final com.sun.management.ThreadMXBean threads;
+  // the last result of every benchmark ends up here, so it is never dead code
+  Object sink;
+
+  Bench() {
+    this.warmupNanos = (long) (Double.parseDouble(System.getProperty("bench.warmup", "1"))
+        * 1e9);
+    this.measureNanos = (long) (Double.parseDouble(System.getProperty("bench.time", "2"))
+        * 1e9);
+    this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+  }
+
+  // Returns the number of bytes allocated so far by every live thread, so
+  // that work done on a ForkJoinPool's workers is counted too. Threads that
+  // end while a call is measured take their bytes with them, but the common
+  // pool keeps its workers alive between calls.
+  long allocatedBytes() {
+    long total = 0;
+    for (long bytes : this.threads.getThreadAllocatedBytes(this.threads.getAllThreadIds())) {
+      total += Math.max(0, bytes);
+    }
+    return total;
+  }
+
+  // Returns the number of collections of every collector so far
+  long gcCount() {
+    long count = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      count += Math.max(0, gc.getCollectionCount());
+    }
+    return count;
+  }
+
+  // Returns the time spent in every collector so far, in milliseconds
+  long gcTime() {
+    long time = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      time += Math.max(0, gc.getCollectionTime());
+    }
+    return time;
+  }
+
+  // EFFECT: Prints the column headings of the results
+  void header() {
+    System.out.printf("%-34s %11s %14s %12s %14s %10s %6s %7s%n", "benchmark", "size", "us/op",
+        "ops/s", "B/op", "MB/s", "gc", "gc ms");
+  }
+
+  // EFFECT: Warms up and measures the given benchmark, and prints its results
+  void measure(String name, String size, IBenchmark benchmark) {
+    long deadline = System.nanoTime() + this.warmupNanos;
+    int calls = 0;
+    while (calls < MIN_CALLS || System.nanoTime() < deadline) {
+      benchmark.setup();
+      this.sink = benchmark.run();
+      calls++;
+    }
+
+    long gcCount = this.gcCount();
+    long gcTime = this.gcTime();
+    long timed = 0;
+    long allocated = 0;
+    calls = 0;
+    deadline = System.nanoTime() + this.measureNanos;
+    while (calls < MIN_CALLS || System.nanoTime() < deadline) {
+      benchmark.setup();
+      long bytes = this.allocatedBytes();
+      long start = System.nanoTime();
+      this.sink = benchmark.run();
+      timed += System.nanoTime() - start;
+      allocated += this.allocatedBytes() - bytes;
+      calls++;
+    }
+
+    double nanosPerCall = (double) timed / calls;
+    System.out.printf("%-34s %11s %14.3f %12.1f %14d %10.1f %6d %7d%n", name, size,
+        nanosPerCall / 1e3, 1e9 / nanosPerCall, allocated / calls,
+        allocated / (timed / 1e9) / (1 << 20), this.gcCount() - gcCount, this.gcTime() - gcTime);
+  }
+
+  // Returns the board sizes given on the command line, or the given defaults
+  static int[] sizes(String[] args, int[] defaults) {
+    if (args.length == 0) {
+      return defaults;
+    }
+    int[] result = new int[args.length];
+    for (int i = 0; i < args.length; i++) {
+      result[i] = Integer.parseInt(args[i]);
+    }
+    return result;
+  }
+}
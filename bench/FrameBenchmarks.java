@@ -0,0 +1,126 @@
+import java.util.*;
+import javalib.impworld.*;
+import javalib.worldimages.*;
+
+// Benchmarks the work done for every frame of a game on a scrambled Kruskal
+// board: a frame where nothing happened, a frame right after a click, and a
+// frame right after the power station moved (on a solved board, since it can
+// hardly move on a scrambled one). A frame is what bigBang does on
+// every tick: onTick, then asking worldEnds whether the game is over, and
+// then drawing makeScene. Every kind is measured drawing one image per piece, again
+// drawing from a BoardRaster, and again zoomed all the way out, where the
+// raster draws flat blocks of color (try sizes up to 4000, with -Xmx8g).
+// Compile the game and these benchmarks together, with javalib and tester on
+// the class path, and run:
+//   java FrameBenchmarks [size ...]
+class FrameBenchmarks {
+  static final int[] SIZES = { 8, 16, 32, 64, 128 };
+  static final String[] KINDS = { "makeScene", "worldEnds", "steady frame", "click + frame",
+      "move + frame" };
+
+  public static void main(String[] args) {
+    Bench bench = new Bench();
+    bench.header();
+    for (int size : Bench.sizes(args, SIZES)) {
+      for (String kind : KINDS) {
+        bench.measure(kind, size + "x" + size, new FrameBenchmark(kind, size, false));
+      }
+      for (String kind : KINDS) {
+        bench.measure(kind + " (raster)", size + "x" + size, new FrameBenchmark(kind, size, true));
+      }
+      for (String kind : KINDS) {
+        FrameBenchmark zoomedOut = new FrameBenchmark(kind, size, true);
+        zoomedOut.zoomOut();
+        bench.measure(kind + " (zoomed out)", size + "x" + size, zoomedOut);
+      }
+    }
+  }
+}
+
+// One kind of frame, on its own board
+class FrameBenchmark implements IBenchmark {
+  final String kind;
+  // the board's spanning tree, and the world that plays it
+  final KruskalGenerator kruskal;
+  final LightEmAll world;
+  final Random rand = new Random(5);
+  // where the next click goes, or which way the power station moves next
+  Posn click;
+  String key;
+  // the last answer of worldEnds
+  WorldEnd end;
+
+  FrameBenchmark(String kind, int size, boolean raster) {
+    this.kind = kind;
+    this.kruskal = new KruskalGenerator(false);
+    this.world = new LightEmAll(size, size, this.kruskal);
+    if (raster) {
+      this.world.renderWithRaster();
+    }
+    // The power station can only wander once the board is solved
+    if (kind.equals("move + frame")) {
+      this.solve();
+    }
+  }
+
+  // EFFECT: Wires the board exactly along its spanning tree
+  void solve() {
+    GameEngine engine = this.world.engine;
+    for (Edge e : this.kruskal.mst) {
+      engine.model.setWiring(e.from, 0);
+      engine.model.setWiring(e.to, 0);
+    }
+    this.kruskal.connect(engine.model);
+    this.world.updatePower();
+  }
+
+  // EFFECT: Zooms the camera all the way out
+  void zoomOut() {
+    while (this.world.camera.cellsPerPixel < Camera.MAX_CELLS_PER_PIXEL) {
+      this.world.camera.zoom(false);
+    }
+  }
+
+  // EFFECT: Picks a random piece to click, or a random wire for the power
+  // station to move along
+  public void setup() {
+    GameEngine engine = this.world.engine;
+    if (this.kind.equals("click + frame")) {
+      int extraSpace = this.world.boardHeight - this.world.height;
+      Camera camera = this.world.camera;
+      int cell = this.rand.nextInt(engine.model.size());
+      this.click = new Posn(
+          Math.max(0, Math.min(camera.viewWidth - 1, camera.screenX(engine.model.colOf(cell)))),
+          extraSpace
+              + Math.max(0, Math.min(camera.viewHeight - 1,
+                  camera.screenY(engine.model.rowOf(cell)))));
+    }
+    else if (this.kind.equals("move + frame")) {
+      String[] keys = { "left", "up", "right", "down" };
+      int dir = 0;
+      while (dir == 0 || !engine.model.linked(engine.model.powerIndex, dir)) {
+        dir = 1 << this.rand.nextInt(4);
+      }
+      this.key = keys[Integer.numberOfTrailingZeros(dir)];
+    }
+  }
+
+  // Handles the input, if any, and then does one frame
+  public Object run() {
+    if (this.kind.equals("makeScene")) {
+      return this.world.makeScene();
+    }
+    else if (this.kind.equals("worldEnds")) {
+      return this.world.worldEnds();
+    }
+    else if (this.kind.equals("click + frame")) {
+      this.world.onMouseClicked(this.click, "LeftButton");
+    }
+    else if (this.kind.equals("move + frame")) {
+      this.world.onKeyEvent(this.key);
+    }
+    this.world.onTick();
+    this.end = this.world.worldEnds();
+    return this.world.makeScene();
+  }
+}
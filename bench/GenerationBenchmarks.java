@@ -0,0 +1,242 @@
+// Benchmarks board generation, phase by phase and end to end, for every type
+// of board, on square boards from 8x8 up to 2000x2000.
+// Compile the game and these benchmarks together, with javalib and tester on
+// the class path, and run:
+//   java -Xmx8g GenerationBenchmarks [size ...]
+class GenerationBenchmarks {
+  static final int[] SIZES = { 8, 64, 250, 500, 1000, 2000 };
+  static final String[] BOARD_NAMES = { "manual", "fractal", "kruskal", "prim" };
+
+  public static void main(String[] args) {
+    Bench bench = new Bench();
+    bench.header();
+    for (int size : Bench.sizes(args, SIZES)) {
+      String dims = size + "x" + size;
+      for (String phase : GenerationPhase.PHASES) {
+        bench.measure(phase, dims, new GenerationPhase(phase, size));
+      }
+      for (int type = 0; type < BOARD_NAMES.length; type++) {
+        bench.measure("GameEngine " + BOARD_NAMES[type], dims,
+            new GenerationEndToEnd(size, type, false));
+        bench.measure("LightEmAll " + BOARD_NAMES[type], dims,
+            new GenerationEndToEnd(size, type, true));
+      }
+      // The same spanning tree boards, by every generator that makes them
+      bench.measure("KruskalGenerator", dims,
+          new GeneratorBenchmark(size, new KruskalGenerator(false)));
+      bench.measure("KruskalGenerator (parallel)", dims,
+          new GeneratorBenchmark(size, new KruskalGenerator(true)));
+      bench.measure("PrimGenerator", dims,
+          new GeneratorBenchmark(size, new PrimGenerator(new java.util.Random(2))));
+      bench.measure("EllerGenerator to a stream", dims, new StreamingGeneration(size));
+    }
+  }
+}
+
+// One phase of generating a board. Everything that comes before the phase is
+// done again, untimed, before every call, so each call starts from the state
+// the constructor would have reached.
+class GenerationPhase implements IBenchmark {
+  static final String[] PHASES = { "makeBoard", "manualBoard", "FractalGenerator",
+      "addAllEdges", "sortEdges", "addToMST", "randomWeights", "BoruvkaMST", "connect",
+      "PrimGenerator", "rotatePieces", "calcRadius", "spread" };
+
+  final String phase;
+  final int size;
+  GameEngine engine;
+  // the algorithms of the board types being measured, with their state
+  ManualGenerator manual;
+  KruskalGenerator kruskal;
+  // the weights of the edges, by number, for BoruvkaMST
+  byte[] weights;
+
+  GenerationPhase(String phase, int size) {
+    this.phase = phase;
+    this.size = size;
+  }
+
+  // EFFECT: Builds a board up to the point where this phase starts
+  public void setup() {
+    // Measuring power does not change the board, so one board is enough
+    if (this.engine != null && (this.phase.equals("calcRadius") || this.phase.equals("spread"))) {
+      return;
+    }
+    this.manual = new ManualGenerator();
+    this.kruskal = new KruskalGenerator(false);
+    this.engine = new GameEngine(this.size, this.size, this.manual);
+    if (this.phase.equals("makeBoard") || this.phase.equals("manualBoard")
+        || this.phase.equals("rotatePieces")) {
+      return;
+    }
+    this.engine.manualBoard();
+    if (this.phase.equals("FractalGenerator") || this.phase.equals("PrimGenerator")) {
+      return;
+    }
+    this.weights = new byte[2 * this.engine.model.size()];
+    if (this.phase.equals("randomWeights")) {
+      return;
+    }
+    BoruvkaMST.randomWeights(this.weights, 2);
+    if (this.phase.equals("BoruvkaMST")) {
+      return;
+    }
+    this.kruskal.allEdges = new java.util.ArrayList<Edge>(this.engine.model.edgeCount());
+    if (this.phase.equals("addAllEdges")) {
+      return;
+    }
+    this.kruskal.addAllEdges(this.engine.model, this.weights);
+    if (this.phase.equals("sortEdges")) {
+      return;
+    }
+    this.kruskal.sortEdges();
+    this.kruskal.mst = new java.util.ArrayList<Edge>();
+    if (this.phase.equals("addToMST")) {
+      return;
+    }
+    this.kruskal.addToMST(this.engine.model.size());
+    if (this.phase.equals("connect")) {
+      return;
+    }
+    // Power is measured over the whole, solved spanning tree
+    this.kruskal.connect(this.engine.model);
+    this.engine.model.setPowerStation(0);
+    this.engine.update();
+  }
+
+  // Runs this phase
+  public Object run() {
+    if (this.phase.equals("makeBoard")) {
+      this.manual.makeBoard(this.engine.model);
+    }
+    else if (this.phase.equals("manualBoard")) {
+      this.engine.manualBoard();
+    }
+    else if (this.phase.equals("FractalGenerator")) {
+      new FractalGenerator(this.engine.model).generate(
+          java.util.concurrent.ForkJoinPool.commonPool());
+    }
+    else if (this.phase.equals("PrimGenerator")) {
+      new PrimGenerator(new java.util.Random(2)).growTree(this.engine.model);
+    }
+    else if (this.phase.equals("addAllEdges")) {
+      this.kruskal.addAllEdges(this.engine.model, this.weights);
+    }
+    else if (this.phase.equals("sortEdges")) {
+      this.kruskal.sortEdges();
+    }
+    else if (this.phase.equals("addToMST")) {
+      this.kruskal.addToMST(this.engine.model.size());
+    }
+    else if (this.phase.equals("randomWeights")) {
+      new BoruvkaMST(this.size, this.size, this.weights).randomWeights(2,
+          java.util.concurrent.ForkJoinPool.commonPool());
+      return this.weights;
+    }
+    else if (this.phase.equals("BoruvkaMST")) {
+      return new BoruvkaMST(this.size, this.size, this.weights).run(
+          java.util.concurrent.ForkJoinPool.commonPool());
+    }
+    else if (this.phase.equals("connect")) {
+      this.kruskal.connect(this.engine.model);
+    }
+    else if (this.phase.equals("rotatePieces")) {
+      this.engine.rotatePieces();
+    }
+    else if (this.phase.equals("calcRadius")) {
+      return this.engine.power.calcRadius();
+    }
+    else if (this.phase.equals("spread")) {
+      this.engine.power.spread(this.engine.power.radius);
+    }
+    return this.engine.model;
+  }
+}
+
+// Generating a whole board, either the game's rules alone or the World that
+// displays them
+class GenerationEndToEnd implements IBenchmark {
+  final int size;
+  final int boardType;
+  final boolean withWorld;
+
+  GenerationEndToEnd(int size, int boardType, boolean withWorld) {
+    this.size = size;
+    this.boardType = boardType;
+    this.withWorld = withWorld;
+  }
+
+  // Nothing to prepare: every call starts from scratch
+  public void setup() {
+    // Do Nothing
+  }
+
+  // Generates one board
+  public Object run() {
+    if (this.withWorld) {
+      return new LightEmAll(this.size, this.size, this.boardType);
+    }
+    else {
+      return new GameEngine(this.size, this.size, this.boardType);
+    }
+  }
+}
+
+// Generating a whole board, power and all, with the given generator
+class GeneratorBenchmark implements IBenchmark {
+  final int size;
+  final IBoardGenerator generator;
+
+  GeneratorBenchmark(int size, IBoardGenerator generator) {
+    this.size = size;
+    this.generator = generator;
+  }
+
+  // Nothing to prepare: every call starts from scratch
+  public void setup() {
+    // Do Nothing
+  }
+
+  // Generates one board
+  public Object run() {
+    return new GameEngine(this.size, this.size, this.generator);
+  }
+}
+
+// Generating a spanning tree board row by row with EllerGenerator, packed
+// into a stream that only counts the bytes, as if writing a file
+class StreamingGeneration implements IBenchmark {
+  final int size;
+  final java.util.Random rand = new java.util.Random(2);
+
+  StreamingGeneration(int size) {
+    this.size = size;
+  }
+
+  // Nothing to prepare: every call starts from scratch
+  public void setup() {
+    // Do Nothing
+  }
+
+  // Generates one board
+  // Returns the number of bytes written
+  public Object run() {
+    final long[] written = new long[1];
+    java.io.OutputStream out = new java.io.OutputStream() {
+      public void write(int b) {
+        written[0]++;
+      }
+
+      public void write(byte[] b, int off, int len) {
+        written[0] += len;
+      }
+    };
+    try {
+      new EllerGenerator(this.size, this.size, this.rand).generate(
+          new PackedRowWriter(out, this.size));
+    }
+    catch (java.io.IOException e) {
+      throw new RuntimeException(e);
+    }
+    return written[0];
+  }
+}
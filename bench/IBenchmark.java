@@ -0,0 +1,9 @@
+// A piece of work to be measured by Bench
+interface IBenchmark {
+  // EFFECT: Prepares the state for the next measured call, which is not timed
+  void setup();
+
+  // Does the measured work once, and returns something it computed so that
+  // the work cannot be optimized away
+  Object run();
+}
@@ -0,0 +1,7 @@
+// A kind of board whose reset is simply a new board
+abstract class ABoardGenerator implements IBoardGenerator {
+  // EFFECT: Gives the engine a whole new board
+  public void reset(GameEngine engine) {
+    this.generate(engine);
+  }
+}
@@ -0,0 +1,218 @@
+// Represents the wiring and power state of every cell on a board.
+// Each cell is identified by its index, row * cols + col, into flat
+// primitive arrays so that huge boards cost a few bytes per cell.
+class BoardModel {
+  // The four wire directions as bits of a cell's wiring mask. They are in
+  // clockwise order, so a clockwise rotation is a 4-bit rotation to the left.
+  static final int LEFT = 1;
+  static final int TOP = 2;
+  static final int RIGHT = 4;
+  static final int BOTTOM = 8;
+  static final int ALL = LEFT | TOP | RIGHT | BOTTOM;
+
+  final int rows;
+  final int cols;
+  // the 4-bit wiring mask of every cell
+  final byte[] wires;
+  // the distance of every cell from the power station (-1 if unreached)
+  final int[] dist;
+  // whether every cell is powered, and how many are
+  final boolean[] powered;
+  int poweredCount;
+  // the index of the cell holding the power station (-1 if there is none)
+  int powerIndex;
+  // counts every change to the wiring or the power station, so that anything
+  // computed from them can tell whether it is out of date
+  int version;
+  // Only kept once something asks for it with trackChanges: the cells whose
+  // wiring, power station, distance or power changed since the last
+  // clearChanges, each listed once, or allChanged if they all may have
+  int[] changedCells;
+  int changedCount;
+  boolean[] changedMark;
+  boolean allChanged;
+
+  BoardModel(int rows, int cols) {
+    this.rows = rows;
+    this.cols = cols;
+    this.wires = new byte[rows * cols];
+    this.dist = new int[rows * cols];
+    this.powered = new boolean[rows * cols];
+    this.powerIndex = -1;
+    this.version = 0;
+  }
+
+  // EFFECT: Starts keeping a list of the cells that change
+  void trackChanges() {
+    if (this.changedCells == null) {
+      this.changedCells = new int[this.size()];
+      this.changedMark = new boolean[this.size()];
+      this.changedCount = 0;
+      this.allChanged = true;
+    }
+  }
+
+  // EFFECT: Sets whether the cell at the given index is powered, keeping count
+  // of the powered cells, and lists it as changed
+  void setPowered(int index, boolean on) {
+    if (this.powered[index] != on) {
+      this.powered[index] = on;
+      this.poweredCount += on ? 1 : -1;
+    }
+    this.markChanged(index);
+  }
+
+  // EFFECT: Lists the cell at the given index as changed, if changes are tracked
+  void markChanged(int index) {
+    if (this.changedCells != null && !this.changedMark[index]) {
+      this.changedMark[index] = true;
+      this.changedCells[this.changedCount] = index;
+      this.changedCount++;
+    }
+  }
+
+  // EFFECT: Records that every cell may have changed
+  void markAllChanged() {
+    this.allChanged = true;
+  }
+
+  // EFFECT: Empties the list of changed cells
+  void clearChanges() {
+    for (int k = 0; k < this.changedCount; k++) {
+      this.changedMark[this.changedCells[k]] = false;
+    }
+    this.changedCount = 0;
+    this.allChanged = false;
+  }
+
+  // Returns the number of cells on this board
+  int size() {
+    return this.wires.length;
+  }
+
+  // Returns the number of edges between adjacent cells on this board
+  int edgeCount() {
+    return this.rows * (this.cols - 1) + (this.rows - 1) * this.cols;
+  }
+
+  // Returns the index of the cell at the given row and column
+  int index(int row, int col) {
+    return row * this.cols + col;
+  }
+
+  // Returns the row of the cell at the given index
+  int rowOf(int index) {
+    return index / this.cols;
+  }
+
+  // Returns the column of the cell at the given index
+  int colOf(int index) {
+    return index % this.cols;
+  }
+
+  // Returns the direction opposite to the given one
+  static int opposite(int dir) {
+    return ((dir << 2) | (dir >>> 2)) & ALL;
+  }
+
+  // Returns the given wiring mask rotated clockwise by the given number of turns
+  static int rotateMask(int mask, int turns) {
+    turns = turns & 3;
+    return ((mask << turns) | (mask >>> (4 - turns))) & ALL;
+  }
+
+  // Returns the index of the neighbor in the given direction, or -1 if the
+  // cell is on that edge of the board
+  int neighbor(int index, int dir) {
+    int col = index % this.cols;
+    if (dir == LEFT) {
+      return col > 0 ? index - 1 : -1;
+    }
+    else if (dir == RIGHT) {
+      return col < this.cols - 1 ? index + 1 : -1;
+    }
+    else if (dir == TOP) {
+      return index >= this.cols ? index - this.cols : -1;
+    }
+    else {
+      return index + this.cols < this.wires.length ? index + this.cols : -1;
+    }
+  }
+
+  // Returns the direction from the cell at from to the adjacent cell at to,
+  // or 0 if the two cells are not adjacent
+  int directionTo(int from, int to) {
+    if (to == from - 1 && from % this.cols != 0) {
+      return LEFT;
+    }
+    else if (to == from + 1 && to % this.cols != 0) {
+      return RIGHT;
+    }
+    else if (to == from - this.cols) {
+      return TOP;
+    }
+    else if (to == from + this.cols) {
+      return BOTTOM;
+    }
+    return 0;
+  }
+
+  // Returns the wiring mask of the cell at the given index
+  int wiring(int index) {
+    return this.wires[index];
+  }
+
+  // Determines if the cell at the given index has a wire in the given direction
+  boolean hasWire(int index, int dir) {
+    return (this.wires[index] & dir) != 0;
+  }
+
+  // EFFECT: Adds a wire in the given direction to the cell at the given index
+  void addWire(int index, int dir) {
+    this.wires[index] = (byte) (this.wires[index] | dir);
+    this.version++;
+    this.markChanged(index);
+  }
+
+  // EFFECT: Adds a wire in the given direction to the cell at the given position
+  void addWire(int row, int col, int dir) {
+    this.addWire(this.index(row, col), dir);
+  }
+
+  // EFFECT: Replaces the wiring mask of the cell at the given index
+  void setWiring(int index, int mask) {
+    this.wires[index] = (byte) (mask & ALL);
+    this.version++;
+    this.markChanged(index);
+  }
+
+  // EFFECT: Rotates the cell at the given index clockwise (90º)
+  void rotate(int index) {
+    this.rotate(index, 1);
+  }
+
+  // EFFECT: Rotates the cell at the given index clockwise by the given number of turns
+  void rotate(int index, int turns) {
+    this.wires[index] = (byte) rotateMask(this.wires[index], turns);
+    this.version++;
+    this.markChanged(index);
+  }
+
+  // Determines if the cell at the given index is wired to its neighbor in
+  // the given direction, i.e. both cells have a wire facing each other
+  boolean linked(int index, int dir) {
+    int other = this.neighbor(index, dir);
+    return other != -1 && (this.wires[index] & dir) != 0
+        && (this.wires[other] & opposite(dir)) != 0;
+  }
+
+  // EFFECT: Moves the power station to the cell at the given index
+  void setPowerStation(int index) {
+    if (this.powerIndex != -1) {
+      this.markChanged(this.powerIndex);
+    }
+    this.powerIndex = index;
+    this.version++;
+    this.markChanged(index);
+  }
+}
@@ -0,0 +1,327 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.*;
+import javalib.worldimages.*;
+
+// A picture of the part of the board in the camera's view, kept from one
+// frame to the next in the BufferedImage behind a ComputedPixelImage. A frame
+// only repaints the cells in view that the BoardModel lists as changed, and
+// only if they now look different, so it costs as much as the pieces that
+// changed rather than the whole board. When the camera moves, the whole view
+// is painted again. Each kind of piece (see TileCache) is drawn once, at the
+// camera's cell size, into a tile of pixels that is then copied into every
+// cell that shows it.
+// Zoomed out below LOD_CELL_SIZE, wires are too small to see, so every cell is
+// painted as a flat block of the color of its state instead: unpowered, the
+// palette's color for its distance when powered, or the power station's cyan.
+// Past one pixel per cell, each pixel shows the brightest cell it covers.
+// These pixels are written into an int[] copy of the view first, and only the
+// ones whose value changed are passed on to the image.
+class BoardRaster {
+  // the color of the view where there is no board
+  static final Color BACKGROUND = Color.BLACK;
+  // cells smaller than this many pixels are drawn as flat blocks
+  static final int LOD_CELL_SIZE = 8;
+
+  final BoardModel model;
+  final GradientPalette palette;
+  final Camera camera;
+  // the picture of the view, one pixel per pixel of the screen
+  final ComputedPixelImage image;
+  // the key of the kind of piece last painted in every cell, or its shade
+  // when drawn as a flat block (-1 if none)
+  final int[] shown;
+  // the flat colors of the cells, brightest last: the background, unpowered
+  // cells, powered cells by level of the palette, and the power station
+  final Color[] shades;
+  final int[] shadeRgb;
+  // the value of every pixel of the view painted in flat blocks, row by row
+  // (0 where it is not known)
+  final int[] pixels;
+  // the camera version the picture is painted for
+  int cameraVersion;
+  // the size of the cells the sprites are drawn for
+  int spriteSize;
+  // the pixels of every kind of piece drawn so far, by key
+  Color[][] sprites;
+  // one shared Color for every pixel value of the sprites
+  final HashMap<Integer, Color> colors;
+  // the number of cells (or pixels, past one pixel per cell) painted by the
+  // last update
+  int painted;
+
+  BoardRaster(BoardModel model, GradientPalette palette, Camera camera) {
+    this.model = model;
+    this.palette = palette;
+    this.camera = camera;
+    this.image = new ComputedPixelImage(camera.viewWidth, camera.viewHeight);
+    this.shown = new int[model.size()];
+    Arrays.fill(this.shown, -1);
+    this.shades = new Color[palette.levels + 3];
+    this.shades[0] = BACKGROUND;
+    this.shades[1] = Color.DARK_GRAY;
+    for (int level = 0; level < palette.levels; level++) {
+      this.shades[level + 2] = palette.colors[level];
+    }
+    this.shades[palette.levels + 2] = Color.CYAN;
+    this.shadeRgb = new int[this.shades.length];
+    for (int shade = 0; shade < this.shades.length; shade++) {
+      this.shadeRgb[shade] = this.shades[shade].getRGB();
+    }
+    this.pixels = new int[camera.viewWidth * camera.viewHeight];
+    this.cameraVersion = camera.version - 1;
+    this.spriteSize = 0;
+    this.colors = new HashMap<Integer, Color>();
+    this.painted = 0;
+    model.trackChanges();
+  }
+
+  // EFFECT: Repaints every cell in view that changed since the last update,
+  // if it looks different now, or the whole view if the camera moved, using
+  // the palette's current radius
+  void update() {
+    this.painted = 0;
+    if (this.cameraVersion != this.camera.version) {
+      this.cameraVersion = this.camera.version;
+      if (this.spriteSize != this.camera.cellSize) {
+        this.spriteSize = this.camera.cellSize;
+        this.sprites = new Color[TileCache.keys(this.palette)][];
+      }
+      Arrays.fill(this.pixels, 0);
+      this.clear();
+      if (this.camera.cellsPerPixel > 1) {
+        this.paintPixels();
+      }
+      else {
+        for (int row = this.camera.firstRow(); row < this.camera.endRow(); row++) {
+          for (int col = this.camera.firstCol(); col < this.camera.endCol(); col++) {
+            this.paint(this.model.index(row, col));
+          }
+        }
+      }
+    }
+    else if (this.model.allChanged) {
+      for (int row = this.camera.firstRow(); row < this.camera.endRow(); row++) {
+        for (int col = this.camera.firstCol(); col < this.camera.endCol(); col++) {
+          this.repaint(this.model.index(row, col));
+        }
+      }
+    }
+    else {
+      for (int k = 0; k < this.model.changedCount; k++) {
+        this.repaint(this.model.changedCells[k]);
+      }
+    }
+    this.model.clearChanges();
+  }
+
+  // Determines if cells are drawn as flat blocks at the camera's zoom
+  boolean flat() {
+    return this.camera.cellSize < LOD_CELL_SIZE;
+  }
+
+  // Returns the shade of the cell at the given index when drawn as a flat
+  // block: its index in shades
+  int shade(int index) {
+    if (this.model.powerIndex == index) {
+      return this.palette.levels + 2;
+    }
+    else if (this.model.powered[index]) {
+      return this.palette.level(this.model.dist[index]) + 2;
+    }
+    else {
+      return 1;
+    }
+  }
+
+  // EFFECT: Sets the pixel at the given position in the view to the given
+  // shade, passing it on to the image only if its value changed
+  void put(int x, int y, int shade) {
+    int pixel = y * this.camera.viewWidth + x;
+    if (this.pixels[pixel] != this.shadeRgb[shade]) {
+      this.pixels[pixel] = this.shadeRgb[shade];
+      this.image.setPixel(x, y, this.shades[shade]);
+    }
+  }
+
+  // EFFECT: Fills the parts of the view past the edges of the board with the
+  // background
+  void clear() {
+    int boardRight = this.camera.screenX(this.model.cols);
+    int boardBottom = this.camera.screenY(this.model.rows);
+    for (int y = 0; y < this.camera.viewHeight; y++) {
+      for (int x = 0; x < this.camera.viewWidth; x++) {
+        if ((x >= boardRight || y >= boardBottom) && this.flat()) {
+          this.put(x, y, 0);
+        }
+        else if (x >= boardRight || y >= boardBottom) {
+          this.image.setPixel(x, y, BACKGROUND);
+        }
+      }
+    }
+  }
+
+  // EFFECT: Repaints the cell at the given index, if it is in view and does
+  // not already show the right kind of piece (or shade)
+  void repaint(int index) {
+    int row = this.model.rowOf(index);
+    int col = this.model.colOf(index);
+    if (row < this.camera.firstRow() || row >= this.camera.endRow()
+        || col < this.camera.firstCol() || col >= this.camera.endCol()) {
+      return;
+    }
+    else if (!this.flat() && this.shown[index] != TileCache.key(this.model, index, this.palette)) {
+      this.paint(index);
+    }
+    else if (this.flat() && this.shown[index] != this.shade(index)) {
+      if (this.camera.cellsPerPixel > 1) {
+        this.paintPixel(this.camera.screenX(col), this.camera.screenY(row));
+      }
+      else {
+        this.paint(index);
+      }
+    }
+  }
+
+  // EFFECT: Paints the cell at the given index, which is in view, clipping it
+  // to the edges of the view
+  void paint(int index) {
+    if (this.flat()) {
+      this.paintBlock(index);
+      return;
+    }
+    int key = TileCache.key(this.model, index, this.palette);
+    Color[] sprite = this.sprite(key);
+    int size = this.spriteSize;
+    int left = this.camera.screenX(this.model.colOf(index));
+    int top = this.camera.screenY(this.model.rowOf(index));
+    int startX = Math.max(0, -left);
+    int startY = Math.max(0, -top);
+    int endX = Math.min(size, this.camera.viewWidth - left);
+    int endY = Math.min(size, this.camera.viewHeight - top);
+    for (int y = startY; y < endY; y++) {
+      for (int x = startX; x < endX; x++) {
+        this.image.setPixel(left + x, top + y, sprite[y * size + x]);
+      }
+    }
+    this.shown[index] = key;
+    this.painted++;
+  }
+
+  // EFFECT: Paints the cell at the given index, which is in view, as a flat
+  // block of its shade, clipping it to the edges of the view
+  void paintBlock(int index) {
+    int shade = this.shade(index);
+    int size = this.camera.cellSize;
+    int left = this.camera.screenX(this.model.colOf(index));
+    int top = this.camera.screenY(this.model.rowOf(index));
+    int endX = Math.min(left + size, this.camera.viewWidth);
+    int endY = Math.min(top + size, this.camera.viewHeight);
+    for (int y = Math.max(0, top); y < endY; y++) {
+      for (int x = Math.max(0, left); x < endX; x++) {
+        this.put(x, y, shade);
+      }
+    }
+    this.shown[index] = shade;
+    this.painted++;
+  }
+
+  // EFFECT: Paints every pixel of the view that shows part of the board,
+  // when each pixel covers several cells
+  void paintPixels() {
+    int endX = Math.min(this.camera.viewWidth, this.camera.drawnWidth() - this.camera.left);
+    int endY = Math.min(this.camera.viewHeight, this.camera.drawnHeight() - this.camera.top);
+    for (int y = 0; y < endY; y++) {
+      for (int x = 0; x < endX; x++) {
+        this.paintPixel(x, y);
+      }
+    }
+  }
+
+  // EFFECT: Paints the pixel at the given position in the view, which shows
+  // part of the board, in the brightest shade of the cells it covers
+  void paintPixel(int x, int y) {
+    int firstRow = this.camera.rowOfPixel(y + this.camera.top);
+    int firstCol = this.camera.colOfPixel(x + this.camera.left);
+    int endRow = Math.min(this.model.rows, firstRow + this.camera.cellsPerPixel);
+    int endCol = Math.min(this.model.cols, firstCol + this.camera.cellsPerPixel);
+    int brightest = 1;
+    for (int row = firstRow; row < endRow; row++) {
+      for (int col = firstCol; col < endCol; col++) {
+        int index = this.model.index(row, col);
+        int shade = this.shade(index);
+        this.shown[index] = shade;
+        brightest = Math.max(brightest, shade);
+      }
+    }
+    this.put(x, y, brightest);
+    this.painted++;
+  }
+
+  // Returns the pixels of the kind of piece with the given key, drawing them
+  // the first time they are needed
+  Color[] sprite(int key) {
+    if (this.sprites[key] == null) {
+      int size = this.spriteSize;
+      BufferedImage tile = drawTile(TileCache.wiringOf(key), TileCache.isStarOf(key),
+          TileCache.colorOf(key, this.palette), size);
+      Color[] sprite = new Color[size * size];
+      for (int y = 0; y < size; y++) {
+        for (int x = 0; x < size; x++) {
+          int rgb = tile.getRGB(x, y);
+          Color color = this.colors.get(rgb);
+          if (color == null) {
+            color = new Color(rgb, true);
+            this.colors.put(rgb, color);
+          }
+          sprite[y * size + x] = color;
+        }
+      }
+      this.sprites[key] = sprite;
+    }
+    return this.sprites[key];
+  }
+
+  // Draws a piece of the given size the way GamePiece.drawPiece does: wires
+  // from the center to the edges in the given color, the power station as a
+  // cyan star, and a black outline
+  static BufferedImage drawTile(int wiring, boolean star, Color wires, int size) {
+    BufferedImage tile = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = tile.createGraphics();
+    int half = size / 2;
+    g.setColor(Color.DARK_GRAY);
+    g.fillRect(0, 0, size, size);
+    g.setColor(wires);
+    if ((wiring & BoardModel.LEFT) != 0) {
+      g.drawLine(0, half, half, half);
+    }
+    if ((wiring & BoardModel.RIGHT) != 0) {
+      g.drawLine(half, half, size, half);
+    }
+    if ((wiring & BoardModel.TOP) != 0) {
+      g.drawLine(half, 0, half, half);
+    }
+    if ((wiring & BoardModel.BOTTOM) != 0) {
+      g.drawLine(half, half, half, size);
+    }
+    if (star) {
+      // A five-pointed star, pointing up, of radius 15 in a usual cell
+      double outer = 15.0 * size / GamePiece.CELL_LENGTH;
+      int[] xs = new int[10];
+      int[] ys = new int[10];
+      for (int point = 0; point < 10; point++) {
+        double radius = point % 2 == 0 ? outer : outer / 2;
+        double angle = Math.PI * point / 5 - Math.PI / 2;
+        xs[point] = half + (int) Math.round(radius * Math.cos(angle));
+        ys[point] = half + (int) Math.round(radius * Math.sin(angle));
+      }
+      g.setColor(Color.CYAN);
+      g.fillPolygon(xs, ys, 10);
+    }
+    g.setColor(Color.BLACK);
+    g.drawRect(0, 0, size - 1, size - 1);
+    g.dispose();
+    return tile;
+  }
+}
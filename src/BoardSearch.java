@@ -0,0 +1,108 @@
+import java.util.*;
+
+// A breadth-first search over the wires of a BoardModel. Its queue, depths
+// and visited marks are allocated once and reused, so a search allocates
+// nothing. Instead of clearing the visited marks before each search, every
+// search gets a new generation number, and a cell counts as visited only if
+// it is stamped with the current generation.
+class BoardSearch {
+  // The order in which the neighbors of a cell are searched
+  static final int[] DIRECTIONS = { BoardModel.TOP, BoardModel.BOTTOM, BoardModel.LEFT,
+      BoardModel.RIGHT };
+
+  final BoardModel model;
+  // a ring buffer of the cells waiting to be searched
+  final int[] queue;
+  // the depth of every cell reached by the current search
+  final int[] depth;
+  // the generation of the last search that reached every cell
+  final int[] visited;
+  int generation;
+  // the number of cells reached by the current search
+  int count;
+
+  BoardSearch(BoardModel model) {
+    this.model = model;
+    this.queue = new int[model.size()];
+    this.depth = new int[model.size()];
+    this.visited = new int[model.size()];
+    this.generation = 0;
+    this.count = 0;
+  }
+
+  // EFFECT: Starts a new generation, so that no cell counts as visited
+  void reset() {
+    this.generation++;
+    // Once the stamps wrap around, old stamps could match again
+    if (this.generation == 0) {
+      Arrays.fill(this.visited, 0);
+      this.generation = 1;
+    }
+    this.count = 0;
+  }
+
+  // EFFECT: Sets the depth of every cell connected to start
+  // Searches the board from start and returns the first cell found at the
+  // greatest depth
+  int search(int start) {
+    this.reset();
+    int capacity = this.queue.length;
+    int head = 0;
+    int pending = 0;
+    int lastFound = start;
+
+    this.visit(start, 0);
+    this.queue[head] = start;
+    pending++;
+
+    while (pending > 0) {
+      int curr = this.queue[head];
+      head = (head + 1) % capacity;
+      pending--;
+
+      for (int dir : DIRECTIONS) {
+        if (this.model.linked(curr, dir)) {
+          int next = this.model.neighbor(curr, dir);
+          if (this.visited[next] != this.generation) {
+            this.visit(next, this.depth[curr] + 1);
+            this.queue[(head + pending) % capacity] = next;
+            pending++;
+            if (this.depth[next] > this.depth[lastFound]) {
+              lastFound = next;
+            }
+          }
+        }
+      }
+    }
+    return lastFound;
+  }
+
+  // EFFECT: Marks the given cell as reached at the given depth
+  void visit(int cell, int cellDepth) {
+    this.visited[cell] = this.generation;
+    this.depth[cell] = cellDepth;
+    this.count++;
+  }
+
+  // Returns the cell that the current search reached in the given position,
+  // counting from 0 for the start of the search
+  int found(int position) {
+    return this.queue[position];
+  }
+
+  // Determines if the current search reached the given cell
+  boolean reached(int cell) {
+    return this.visited[cell] == this.generation;
+  }
+
+  // Returns the depth of the given cell in the current search, or -1 if the
+  // search did not reach it
+  int depthOf(int cell) {
+    if (this.reached(cell)) {
+      return this.depth[cell];
+    }
+    else {
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,298 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// Finds the minimum spanning tree of a board with Boruvka's algorithm, so that
+// most of the work can be shared between cores. In every round, each component
+// of the forest so far finds its cheapest edge to another component, in
+// parallel over the edges, and all of those edges join the tree at once, which
+// at least halves the number of components. Edges found inside a component are
+// dropped as they are found, so every round looks at fewer edges than the one
+// before.
+// No edge is ever an Edge object, and nothing is sorted. Edges are numbered
+// by the cells they start from: edge 2 * i goes from cell i to the cell on its
+// right and edge 2 * i + 1 to the cell below it, which is the order
+// addAllEdges lists them in, and all there is of an edge is its weight in an
+// array by that number. An edge is ranked by its weight and then its number,
+// so no two edges are equally cheap and there is only one minimum spanning
+// tree: the one addToMST finds going down the same edges sorted by weight.
+class BoruvkaMST {
+  // the edges are kept in chunks of this many, and ranges of at most this
+  // many cells, or one chunk of edges, are handled by one thread
+  static final int CHUNK = 1 << 13;
+  // the cheapest edge of a component that has none yet
+  static final long NONE = Long.MAX_VALUE;
+
+  final int rows;
+  final int cols;
+  // the weight of every edge, by number; numbers that would lead off the
+  // right or the bottom of the board are not edges, and their weights are
+  // never read
+  final byte[] weights;
+  // the numbers of the edges still between two components; every chunk keeps
+  // its edges at its start
+  final int[] edges;
+  // the number of edges still kept in every chunk
+  final int[] live;
+  // the component of every cell, named by one of its cells
+  final int[] comp;
+  // the rank (weight and number) of the cheapest edge leaving every
+  // component found this round
+  final AtomicLongArray cheapest;
+  // the merged components, and the new name of every component
+  final UnionFind components;
+  final int[] renamed;
+  // the seed the weights of the chunks are drawn from
+  long seed;
+
+  // Constructor with the weights of every edge of a board of the given size,
+  // by number (two numbers for every cell)
+  BoruvkaMST(int rows, int cols, byte[] weights) {
+    int size = rows * cols;
+    if (weights.length != 2 * size) {
+      throw new IllegalArgumentException("A " + rows + "x" + cols + " board needs "
+          + 2 * size + " weights, not " + weights.length);
+    }
+    this.rows = rows;
+    this.cols = cols;
+    this.weights = weights;
+    this.edges = new int[weights.length];
+    this.live = new int[(weights.length + CHUNK - 1) / CHUNK];
+    this.comp = new int[size];
+    this.cheapest = new AtomicLongArray(size);
+    this.components = new UnionFind(size);
+    this.renamed = new int[size];
+  }
+
+  // Returns the cell the edge with the given number starts from
+  int from(int edge) {
+    return edge >> 1;
+  }
+
+  // Returns the cell the edge with the given number leads to
+  int to(int edge) {
+    if ((edge & 1) == 0) {
+      return (edge >> 1) + 1;
+    }
+    return (edge >> 1) + this.cols;
+  }
+
+  // Determines if the given number is the number of an edge of the board
+  boolean exists(int edge) {
+    int cell = edge >> 1;
+    if ((edge & 1) == 0) {
+      return cell % this.cols != this.cols - 1;
+    }
+    return cell + this.cols < this.comp.length;
+  }
+
+  // EFFECT: Gives every edge a random weight in [0, Edge.WEIGHT_RANGE), on the
+  // given pool. Every chunk draws its weights from its own generator, seeded
+  // by the given seed and the chunk, so the weights are the same however the
+  // chunks are shared out.
+  void randomWeights(long seed, ForkJoinPool pool) {
+    this.seed = seed;
+    pool.invoke(new BoruvkaPass(this, BoruvkaPass.WEIGH, 0, this.live.length));
+  }
+
+  // EFFECT: Draws the weights of the edges in the given chunk
+  void weigh(int chunk) {
+    weigh(this.weights, this.seed, chunk);
+  }
+
+  // EFFECT: Gives every edge of the given weights a random weight in
+  // [0, Edge.WEIGHT_RANGE) on this thread, the same ones randomWeights gives
+  // on a pool
+  static void randomWeights(byte[] weights, long seed) {
+    for (int chunk = 0; chunk * CHUNK < weights.length; chunk++) {
+      weigh(weights, seed, chunk);
+    }
+  }
+
+  // EFFECT: Draws the weights of the edges in the given chunk from the
+  // chunk's own generator
+  static void weigh(byte[] weights, long seed, int chunk) {
+    // Seeds 2^32 apart give streams that never meet within a chunk
+    SplittableRandom rand = new SplittableRandom(seed + ((long) chunk << 32));
+    int end = Math.min(weights.length, (chunk + 1) * CHUNK);
+    for (int i = chunk * CHUNK; i < end; i++) {
+      weights[i] = (byte) rand.nextInt(Edge.WEIGHT_RANGE);
+    }
+  }
+
+  // Finds the minimum spanning tree (or forest) on the given pool
+  // Returns the numbers of its edges, in increasing order
+  int[] run(ForkJoinPool pool) {
+    int size = this.comp.length;
+    int[] names = new int[size];
+    for (int i = 0; i < size; i++) {
+      names[i] = i;
+      this.comp[i] = i;
+    }
+    int count = size;
+    boolean[] chosen = new boolean[this.weights.length];
+    int treeSize = 0;
+    pool.invoke(new BoruvkaPass(this, BoruvkaPass.LIST, 0, this.live.length));
+
+    while (count > 1) {
+      for (int k = 0; k < count; k++) {
+        this.cheapest.set(names[k], NONE);
+      }
+      pool.invoke(new BoruvkaPass(this, BoruvkaPass.FIND, 0, this.live.length));
+
+      // Joins every component to the other end of its cheapest edge. Two
+      // components may have picked the same edge, and it only joins them once.
+      boolean merged = false;
+      for (int k = 0; k < count; k++) {
+        long rank = this.cheapest.get(names[k]);
+        int edge = (int) rank;
+        if (rank != NONE
+            && this.components.union(this.comp[this.from(edge)], this.comp[this.to(edge)])) {
+          chosen[edge] = true;
+          treeSize++;
+          merged = true;
+        }
+      }
+      if (!merged) {
+        break;
+      }
+
+      // Names every new component after its representative
+      int newCount = 0;
+      for (int k = 0; k < count; k++) {
+        int root = this.components.find(names[k]);
+        this.renamed[names[k]] = root;
+        if (root == names[k]) {
+          names[newCount] = root;
+          newCount++;
+        }
+      }
+      count = newCount;
+      pool.invoke(new BoruvkaPass(this, BoruvkaPass.RENAME, 0, size));
+    }
+
+    int[] tree = new int[treeSize];
+    int next = 0;
+    for (int edge = 0; edge < chosen.length; edge++) {
+      if (chosen[edge]) {
+        tree[next] = edge;
+        next++;
+      }
+    }
+    return tree;
+  }
+
+  // EFFECT: Keeps the numbers of all the edges in the given chunk
+  void list(int chunk) {
+    int start = chunk * CHUNK;
+    int end = Math.min(this.weights.length, start + CHUNK);
+    int kept = start;
+    for (int edge = start; edge < end; edge++) {
+      if (this.exists(edge)) {
+        this.edges[kept] = edge;
+        kept++;
+      }
+    }
+    this.live[chunk] = kept - start;
+  }
+
+  // EFFECT: Offers every edge kept in the given chunk to the components at
+  // both of its ends, and drops the edges whose ends are in one component
+  void findCheapest(int chunk) {
+    int start = chunk * CHUNK;
+    int kept = start;
+    for (int i = start; i < start + this.live[chunk]; i++) {
+      int edge = this.edges[i];
+      int a = this.comp[this.from(edge)];
+      int b = this.comp[this.to(edge)];
+      if (a != b) {
+        long rank = ((long) this.weights[edge] << 32) | edge;
+        this.offer(a, rank);
+        this.offer(b, rank);
+        this.edges[kept] = edge;
+        kept++;
+      }
+    }
+    this.live[chunk] = kept - start;
+  }
+
+  // EFFECT: Makes the edge of the given rank the cheapest of the given
+  // component, if it is cheaper than the one found so far
+  void offer(int component, long rank) {
+    long current = this.cheapest.get(component);
+    while (rank < current && !this.cheapest.compareAndSet(component, current, rank)) {
+      current = this.cheapest.get(component);
+    }
+  }
+
+  // EFFECT: Moves every cell in the given range into its new component
+  void rename(int lo, int hi) {
+    for (int i = lo; i < hi; i++) {
+      this.comp[i] = this.renamed[this.comp[i]];
+    }
+  }
+
+  // EFFECT: Adds the wires of the edges with the given numbers to the board
+  void connect(BoardModel model, int[] tree) {
+    for (int edge : tree) {
+      if ((edge & 1) == 0) {
+        model.addWire(this.from(edge), BoardModel.RIGHT);
+        model.addWire(this.to(edge), BoardModel.LEFT);
+      }
+      else {
+        model.addWire(this.from(edge), BoardModel.BOTTOM);
+        model.addWire(this.to(edge), BoardModel.TOP);
+      }
+    }
+  }
+}
+
+// One pass of BoruvkaMST over a range of chunks of edges or of cells, split
+// in halves that run in parallel while the range is big
+class BoruvkaPass extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+
+  // the kinds of pass
+  static final int WEIGH = 0;
+  static final int LIST = 1;
+  static final int FIND = 2;
+  static final int RENAME = 3;
+
+  final BoruvkaMST mst;
+  final int kind;
+  final int lo;
+  final int hi;
+
+  BoruvkaPass(BoruvkaMST mst, int kind, int lo, int hi) {
+    this.mst = mst;
+    this.kind = kind;
+    this.lo = lo;
+    this.hi = hi;
+  }
+
+  // EFFECT: Does this pass over its range
+  protected void compute() {
+    int most = this.kind == RENAME ? BoruvkaMST.CHUNK : 1;
+    if (this.hi - this.lo > most) {
+      int mid = (this.lo + this.hi) >>> 1;
+      invokeAll(new BoruvkaPass(this.mst, this.kind, this.lo, mid),
+          new BoruvkaPass(this.mst, this.kind, mid, this.hi));
+    }
+    else if (this.kind == RENAME) {
+      this.mst.rename(this.lo, this.hi);
+    }
+    else {
+      for (int chunk = this.lo; chunk < this.hi; chunk++) {
+        if (this.kind == WEIGH) {
+          this.mst.weigh(chunk);
+        }
+        else if (this.kind == LIST) {
+          this.mst.list(chunk);
+        }
+        else {
+          this.mst.findCheapest(chunk);
+        }
+      }
+    }
+  }
+}
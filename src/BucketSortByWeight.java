@@ -0,0 +1,43 @@
+import java.util.*;
+
+// Sorts Edges whose weights are all in a small known range [0, range) with a
+// counting sort: O(E + range) time, no comparisons and no shifting of elements
+class BucketSortByWeight {
+  final int range;
+
+  BucketSortByWeight(int range) {
+    this.range = range;
+  }
+
+  // Determines if every edge's weight is within this sort's range
+  boolean fits(ArrayList<Edge> edges) {
+    for (Edge edge : edges) {
+      if (edge.weight < 0 || edge.weight >= this.range) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // EFFECT: The given edges are put in non-descending order of weight
+  // Edges of equal weight keep their relative order, as with SortByWeight
+  void sort(ArrayList<Edge> edges) {
+    // start[w] is where the next edge of weight w goes
+    int[] start = new int[this.range + 1];
+    for (Edge edge : edges) {
+      start[edge.weight + 1]++;
+    }
+    for (int w = 0; w < this.range; w++) {
+      start[w + 1] += start[w];
+    }
+
+    Edge[] sorted = new Edge[edges.size()];
+    for (Edge edge : edges) {
+      sorted[start[edge.weight]] = edge;
+      start[edge.weight]++;
+    }
+    for (int i = 0; i < sorted.length; i++) {
+      edges.set(i, sorted[i]);
+    }
+  }
+}
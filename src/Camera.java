@@ -0,0 +1,159 @@
+// Which part of the board is on screen, and how big its cells are drawn.
+// The board is drawn with square cells of cellSize pixels or, zoomed out
+// further, with square blocks of cellsPerPixel cells in every pixel. The view
+// shows the part of that drawing whose top left corner is at (left, top).
+// Only the cells in the view need drawing, however big the board is.
+class Camera {
+  // the largest window for the board, in pixels
+  static final int MAX_VIEW_WIDTH = 1200;
+  static final int MAX_VIEW_HEIGHT = 800;
+  // the range of cell sizes, in pixels
+  static final int MIN_CELL_SIZE = 1;
+  static final int MAX_CELL_SIZE = 4 * GamePiece.CELL_LENGTH;
+  // the most cells drawn in a row of one pixel
+  static final int MAX_CELLS_PER_PIXEL = 16;
+
+  final int rows;
+  final int cols;
+  // the size of the view, in pixels
+  final int viewWidth;
+  final int viewHeight;
+  // the size of every cell on screen, in pixels, and the number of cells in
+  // a row of each pixel: at least one of them is always 1
+  int cellSize;
+  int cellsPerPixel;
+  // where the view's top left corner is on the drawn board, in pixels
+  int left;
+  int top;
+  // counts every change of the view, so that pictures of it know to redraw
+  int version;
+
+  Camera(int rows, int cols) {
+    this.rows = rows;
+    this.cols = cols;
+    this.viewWidth = Math.min(cols * GamePiece.CELL_LENGTH, MAX_VIEW_WIDTH);
+    this.viewHeight = Math.min(rows * GamePiece.CELL_LENGTH, MAX_VIEW_HEIGHT);
+    this.cellSize = GamePiece.CELL_LENGTH;
+    this.cellsPerPixel = 1;
+    this.left = 0;
+    this.top = 0;
+    this.version = 0;
+  }
+
+  // Returns how much bigger than usual the cells are drawn
+  double scale() {
+    return (double) this.cellSize / GamePiece.CELL_LENGTH;
+  }
+
+  // Returns the column drawn at the given x position on the whole drawn board
+  int colOfPixel(int x) {
+    return (int) ((long) x * this.cellsPerPixel / this.cellSize);
+  }
+
+  // Returns the row drawn at the given y position on the whole drawn board
+  int rowOfPixel(int y) {
+    return (int) ((long) y * this.cellsPerPixel / this.cellSize);
+  }
+
+  // Returns the width of the whole drawn board, in pixels
+  int drawnWidth() {
+    return (this.cols * this.cellSize + this.cellsPerPixel - 1) / this.cellsPerPixel;
+  }
+
+  // Returns the height of the whole drawn board, in pixels
+  int drawnHeight() {
+    return (this.rows * this.cellSize + this.cellsPerPixel - 1) / this.cellsPerPixel;
+  }
+
+  // Returns the first column in view
+  int firstCol() {
+    return this.colOfPixel(this.left);
+  }
+
+  // Returns the column after the last one in view
+  int endCol() {
+    return Math.min(this.cols, this.colOfPixel(this.left + this.viewWidth - 1) + 1);
+  }
+
+  // Returns the first row in view
+  int firstRow() {
+    return this.rowOfPixel(this.top);
+  }
+
+  // Returns the row after the last one in view
+  int endRow() {
+    return Math.min(this.rows, this.rowOfPixel(this.top + this.viewHeight - 1) + 1);
+  }
+
+  // Returns where the left edge of the given column is in the view, in pixels
+  int screenX(int col) {
+    return col * this.cellSize / this.cellsPerPixel - this.left;
+  }
+
+  // Returns where the top edge of the given row is in the view, in pixels
+  int screenY(int row) {
+    return row * this.cellSize / this.cellsPerPixel - this.top;
+  }
+
+  // Returns the column under the given x position in the view, or -1 if
+  // there is none
+  int colAt(int x) {
+    if (x < 0 || x >= this.viewWidth) {
+      return -1;
+    }
+    int col = this.colOfPixel(x + this.left);
+    return col < this.cols ? col : -1;
+  }
+
+  // Returns the row under the given y position in the view, or -1 if there
+  // is none
+  int rowAt(int y) {
+    if (y < 0 || y >= this.viewHeight) {
+      return -1;
+    }
+    int row = this.rowOfPixel(y + this.top);
+    return row < this.rows ? row : -1;
+  }
+
+  // EFFECT: Moves the view by the given number of pixels, without leaving
+  // the board
+  void pan(int dx, int dy) {
+    this.left += dx;
+    this.top += dy;
+    this.clamp();
+    this.version++;
+  }
+
+  // EFFECT: Doubles (if in) or halves (if not) the size of the cells, keeping
+  // the middle of the view where it is. Past one pixel per cell, zooming out
+  // puts more cells in every pixel instead.
+  void zoom(boolean in) {
+    double centerCol = (this.left + this.viewWidth / 2.0) * this.cellsPerPixel / this.cellSize;
+    double centerRow = (this.top + this.viewHeight / 2.0) * this.cellsPerPixel / this.cellSize;
+    if (in && this.cellsPerPixel > 1) {
+      this.cellsPerPixel = this.cellsPerPixel / 2;
+    }
+    else if (in) {
+      this.cellSize = Math.min(MAX_CELL_SIZE, this.cellSize * 2);
+    }
+    else if (this.cellSize > MIN_CELL_SIZE) {
+      this.cellSize = Math.max(MIN_CELL_SIZE, this.cellSize / 2);
+    }
+    else {
+      this.cellsPerPixel = Math.min(MAX_CELLS_PER_PIXEL, this.cellsPerPixel * 2);
+    }
+    this.left = (int) Math.round(centerCol * this.cellSize / this.cellsPerPixel
+        - this.viewWidth / 2.0);
+    this.top = (int) Math.round(centerRow * this.cellSize / this.cellsPerPixel
+        - this.viewHeight / 2.0);
+    this.clamp();
+    this.version++;
+  }
+
+  // EFFECT: Keeps the view over the board, at its top left if the board is
+  // smaller than the view
+  void clamp() {
+    this.left = Math.max(0, Math.min(this.left, this.drawnWidth() - this.viewWidth));
+    this.top = Math.max(0, Math.min(this.top, this.drawnHeight() - this.viewHeight));
+  }
+}
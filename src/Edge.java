@@ -0,0 +1,35 @@
+import java.util.*;
+
+// Represents a wire between two adjacent cells of a board, by their
+// indices; used for Kruskal's algorithm
+class Edge {
+  private static final Random RANDOBJ = new Random(1);
+  // Weights are always in [0, WEIGHT_RANGE)
+  static final int WEIGHT_RANGE = 100;
+
+  int from;
+  int to;
+  int weight;
+
+  Edge(int from, int to) {
+    this.from = from;
+    this.to = to;
+    // Can have a weight of any number [0, 99]
+    this.weight = Edge.RANDOBJ.nextInt(Edge.WEIGHT_RANGE);
+  }
+
+  // Constructor with a given weight
+  Edge(int from, int to, int weight) {
+    this.from = from;
+    this.to = to;
+    this.weight = weight;
+  }
+
+  // EFFECT: Turns on certain connects to connect an actual edge
+  // Connects the cells of the given board that are part of this edge
+  void connectNodes(BoardModel model) {
+    int dir = model.directionTo(this.from, this.to);
+    model.addWire(this.from, dir);
+    model.addWire(this.to, BoardModel.opposite(dir));
+  }
+}
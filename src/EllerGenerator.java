@@ -0,0 +1,139 @@
+import java.io.*;
+import java.util.*;
+
+// Generates a board wired as a random spanning tree one row at a time, with
+// Eller's algorithm, keeping only a few arrays as long as one row. Every row
+// starts with the cells that were wired down to from the row above in the
+// sets they came from, and every other cell in a set of its own. Neighbors in
+// different sets are then wired together at random, merging their sets, and
+// at least one cell of every set is wired down to the next row, so no set is
+// left behind. The last row wires together every pair of neighbors still in
+// different sets. No wire ever joins two cells of one set, so the result is a
+// tree, and it spans the board. Each row goes to the sink as soon as it is
+// done, so boards far bigger than the heap can be written straight to a file.
+class EllerGenerator {
+  final int rows;
+  final int cols;
+  final Random rand;
+  // the wiring of the row being generated, and of the row below it so far
+  final byte[] current;
+  final byte[] below;
+  // the set of every cell of the current row, and of the row below (-1 for
+  // cells that start a set of their own)
+  final int[] set;
+  final int[] nextSet;
+  // the merged sets of the current row, as parents in a union-find (labels
+  // are always less than twice the number of columns)
+  final int[] parent;
+  // for every set: how many of its cells are left to decide on, whether one
+  // of them was wired down, and its label in the row below
+  final int[] remaining;
+  final boolean[] wentDown;
+  final int[] relabel;
+
+  EllerGenerator(int rows, int cols, Random rand) {
+    this.rows = rows;
+    this.cols = cols;
+    this.rand = rand;
+    this.current = new byte[cols];
+    this.below = new byte[cols];
+    this.set = new int[cols];
+    this.nextSet = new int[cols];
+    this.parent = new int[2 * cols];
+    this.remaining = new int[2 * cols];
+    this.wentDown = new boolean[2 * cols];
+    this.relabel = new int[2 * cols];
+  }
+
+  // EFFECT: Generates the whole board, passing each row to the sink in order
+  void generate(IRowSink sink) throws IOException {
+    Arrays.fill(this.current, (byte) 0);
+    Arrays.fill(this.set, -1);
+    for (int row = 0; row < this.rows; row++) {
+      this.startRow();
+      this.joinAcross(row == this.rows - 1);
+      if (row < this.rows - 1) {
+        this.joinDown();
+      }
+      sink.acceptRow(row, this.current);
+
+      System.arraycopy(this.below, 0, this.current, 0, this.cols);
+      Arrays.fill(this.below, (byte) 0);
+      System.arraycopy(this.nextSet, 0, this.set, 0, this.cols);
+    }
+  }
+
+  // EFFECT: Gives every cell of the current row that was not wired down to a
+  // set of its own, after the ones carried over from the row above
+  void startRow() {
+    int next = 0;
+    for (int col = 0; col < this.cols; col++) {
+      next = Math.max(next, this.set[col] + 1);
+    }
+    for (int label = 0; label < 2 * this.cols; label++) {
+      this.parent[label] = label;
+    }
+    for (int col = 0; col < this.cols; col++) {
+      if (this.set[col] == -1) {
+        this.set[col] = next;
+        next++;
+      }
+    }
+  }
+
+  // Finds the set the given label was merged into
+  int find(int label) {
+    while (this.parent[label] != label) {
+      this.parent[label] = this.parent[this.parent[label]];
+      label = this.parent[label];
+    }
+    return label;
+  }
+
+  // EFFECT: Wires neighbors in different sets together, at random, or all of
+  // them if this is the last row
+  void joinAcross(boolean all) {
+    for (int col = 0; col + 1 < this.cols; col++) {
+      int left = this.find(this.set[col]);
+      int right = this.find(this.set[col + 1]);
+      if (left != right && (all || this.rand.nextBoolean())) {
+        this.parent[right] = left;
+        this.current[col] |= BoardModel.RIGHT;
+        this.current[col + 1] |= BoardModel.LEFT;
+      }
+    }
+  }
+
+  // EFFECT: Wires cells down to the row below at random, but at least one
+  // from every set, and works out the sets of the row below
+  void joinDown() {
+    for (int col = 0; col < this.cols; col++) {
+      int root = this.find(this.set[col]);
+      this.remaining[root] = 0;
+      this.wentDown[root] = false;
+      this.relabel[root] = -1;
+    }
+    for (int col = 0; col < this.cols; col++) {
+      this.remaining[this.find(this.set[col])]++;
+    }
+    int labels = 0;
+    for (int col = 0; col < this.cols; col++) {
+      int root = this.find(this.set[col]);
+      this.remaining[root]--;
+      if (this.rand.nextBoolean() || (this.remaining[root] == 0 && !this.wentDown[root])) {
+        this.wentDown[root] = true;
+        this.current[col] |= BoardModel.BOTTOM;
+        this.below[col] |= BoardModel.TOP;
+        // The sets carried down are renamed 0, 1, 2... so labels stay small
+        if (this.relabel[root] == -1) {
+          this.relabel[root] = labels;
+          labels++;
+        }
+        this.nextSet[col] = this.relabel[root];
+      }
+      else {
+        this.nextSet[col] = -1;
+      }
+    }
+  }
+}
@@ -0,0 +1,15 @@
+import java.util.concurrent.*;
+
+// Fractal boards, wired by FractalGenerator on every core
+class FractalBoardGenerator extends ABoardGenerator {
+  // Returns the name of this kind of board
+  public String name() {
+    return "Fractal Puzzle";
+  }
+
+  // EFFECT: Gives the engine a fractal board
+  public void generate(GameEngine engine) {
+    engine.manualBoard();
+    new FractalGenerator(engine.model).generate(ForkJoinPool.commonPool());
+  }
+}
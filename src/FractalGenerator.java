@@ -0,0 +1,204 @@
+import java.util.concurrent.*;
+
+// Generates the fractal board without recursing once per region. Every
+// region is wired with a U around its edges and then split into four
+// quadrants, and quadrants never share a cell, so they can be wired at the
+// same time: big regions are split into tasks on a ForkJoinPool, and each
+// task works off its small regions from an explicit stack. The cells are
+// written straight into the model's wiring, and the model is told about the
+// changes once at the end.
+class FractalGenerator {
+  // regions with at most this many cells are wired by one thread
+  static final int SEQUENTIAL_CELLS = 1 << 14;
+
+  final BoardModel model;
+
+  FractalGenerator(BoardModel model) {
+    this.model = model;
+  }
+
+  // EFFECT: Wires the whole board on the given pool, and puts the power
+  // station in the middle of the top row
+  void generate(ForkJoinPool pool) {
+    pool.invoke(new FractalTask(this, this.model.rows, this.model.cols, 0, 0));
+    this.model.version++;
+    this.model.markAllChanged();
+    this.model.setPowerStation(this.model.index(0, this.model.cols / 2));
+  }
+
+  // EFFECT: Wires the given region and all the regions inside it, using a
+  // stack of regions instead of recursion
+  void generateSequential(int numRows, int numCols, int row, int col) {
+    // Every region is four ints: rows, columns, top row and left column.
+    // Each region popped pushes at most four, so the stack holds at most
+    // three per level of splitting, and there are fewer than 32 levels.
+    int[] stack = new int[4 * (3 * 32 + 1)];
+    int top = push(stack, 0, numRows, numCols, row, col);
+    while (top > 0) {
+      top -= 4;
+      int regionRows = stack[top];
+      int regionCols = stack[top + 1];
+      int regionRow = stack[top + 2];
+      int regionCol = stack[top + 3];
+      if (this.wireRegion(regionRows, regionCols, regionRow, regionCol)) {
+        int topRows = (regionRows + 1) / 2;
+        int leftCols = (regionCols + 1) / 2;
+        top = push(stack, top, regionRows / 2, regionCols / 2, regionRow + topRows,
+            regionCol + leftCols);
+        top = push(stack, top, regionRows / 2, leftCols, regionRow + topRows, regionCol);
+        top = push(stack, top, topRows, regionCols / 2, regionRow, regionCol + leftCols);
+        top = push(stack, top, topRows, leftCols, regionRow, regionCol);
+      }
+    }
+  }
+
+  // EFFECT: Pushes a region onto the given stack
+  // Returns the new top of the stack
+  static int push(int[] stack, int top, int numRows, int numCols, int row, int col) {
+    stack[top] = numRows;
+    stack[top + 1] = numCols;
+    stack[top + 2] = row;
+    stack[top + 3] = col;
+    return top + 4;
+  }
+
+  // EFFECT: Wires the U around the given region (and its middle, if it has
+  // two rows)
+  // Returns whether the region is to be split into quadrants
+  boolean wireRegion(int numRows, int numCols, int row, int col) {
+    if (numRows == 1 || numCols == 1) {
+      return false;
+    }
+    int bottom = row + numRows - 1;
+    int right = col + numCols - 1;
+    this.wire(row, col, BoardModel.BOTTOM);
+    this.wire(bottom, col, BoardModel.RIGHT | BoardModel.TOP);
+    this.wire(bottom, right, BoardModel.LEFT | BoardModel.TOP);
+    this.wire(row, right, BoardModel.BOTTOM);
+    for (int i = row + 1; i < bottom; i++) {
+      this.wire(i, col, BoardModel.TOP | BoardModel.BOTTOM);
+      this.wire(i, right, BoardModel.TOP | BoardModel.BOTTOM);
+    }
+    for (int i = col + 1; i < right; i++) {
+      this.wire(bottom, i, BoardModel.LEFT | BoardModel.RIGHT);
+    }
+
+    if (numCols == 2) {
+      return false;
+    }
+    else if (numRows == 2) {
+      for (int i = col + 1; i < right; i++) {
+        this.wire(row, i, BoardModel.BOTTOM);
+        this.wire(row + 1, i, BoardModel.TOP);
+      }
+      return false;
+    }
+    return true;
+  }
+
+  // Returns the wiring of one cell of a fractal board with the given number of
+  // rows and columns, without wiring the rest of the board. Only the regions
+  // that contain the cell matter: the cell gets its wires from the U of each,
+  // from the outermost down to the quadrant where the splitting stops, so it
+  // takes one step per level, O(log(rows + cols)).
+  static int wiringAt(int rows, int cols, int row, int col) {
+    int numRows = rows;
+    int numCols = cols;
+    int top = 0;
+    int left = 0;
+    int wiring = 0;
+    while (numRows > 1 && numCols > 1) {
+      int bottom = top + numRows - 1;
+      int right = left + numCols - 1;
+      boolean onSide = col == left || col == right;
+      if (row == top && onSide) {
+        wiring |= BoardModel.BOTTOM;
+      }
+      else if (row == bottom && col == left) {
+        wiring |= BoardModel.RIGHT | BoardModel.TOP;
+      }
+      else if (row == bottom && col == right) {
+        wiring |= BoardModel.LEFT | BoardModel.TOP;
+      }
+      else if (row == bottom) {
+        wiring |= BoardModel.LEFT | BoardModel.RIGHT;
+      }
+      else if (onSide) {
+        wiring |= BoardModel.TOP | BoardModel.BOTTOM;
+      }
+
+      if (numCols == 2) {
+        break;
+      }
+      else if (numRows == 2) {
+        if (!onSide) {
+          wiring |= row == top ? BoardModel.BOTTOM : BoardModel.TOP;
+        }
+        break;
+      }
+      // Moves down into the quadrant that holds the cell
+      int topRows = (numRows + 1) / 2;
+      int leftCols = (numCols + 1) / 2;
+      if (row < top + topRows) {
+        numRows = topRows;
+      }
+      else {
+        top += topRows;
+        numRows = numRows / 2;
+      }
+      if (col < left + leftCols) {
+        numCols = leftCols;
+      }
+      else {
+        left += leftCols;
+        numCols = numCols / 2;
+      }
+    }
+    return wiring;
+  }
+
+  // EFFECT: Adds the given wires to the cell at the given position, without
+  // counting it as a change to the model (generate does that once)
+  void wire(int row, int col, int dirs) {
+    int index = this.model.index(row, col);
+    this.model.wires[index] = (byte) (this.model.wires[index] | dirs);
+  }
+}
+
+// Wires one region of a fractal board, splitting it into quadrants wired in
+// parallel while it is big
+class FractalTask extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+
+  final FractalGenerator generator;
+  final int numRows;
+  final int numCols;
+  final int row;
+  final int col;
+
+  FractalTask(FractalGenerator generator, int numRows, int numCols, int row, int col) {
+    this.generator = generator;
+    this.numRows = numRows;
+    this.numCols = numCols;
+    this.row = row;
+    this.col = col;
+  }
+
+  // EFFECT: Wires this region and all the regions inside it
+  protected void compute() {
+    if ((long) this.numRows * this.numCols <= FractalGenerator.SEQUENTIAL_CELLS) {
+      this.generator.generateSequential(this.numRows, this.numCols, this.row, this.col);
+    }
+    else if (this.generator.wireRegion(this.numRows, this.numCols, this.row, this.col)) {
+      int topRows = (this.numRows + 1) / 2;
+      int leftCols = (this.numCols + 1) / 2;
+      invokeAll(new FractalTask(this.generator, topRows, leftCols, this.row, this.col),
+          new FractalTask(this.generator, topRows, this.numCols / 2, this.row,
+              this.col + leftCols),
+          new FractalTask(this.generator, this.numRows / 2, leftCols, this.row + topRows,
+              this.col),
+          new FractalTask(this.generator, this.numRows / 2, this.numCols / 2,
+              this.row + topRows, this.col + leftCols));
+    }
+  }
+}
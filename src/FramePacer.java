@@ -0,0 +1,64 @@
+// Decides when the game needs a new frame. A frame is only due after some
+// input, or when the clock on screen shows a new second; on every other tick
+// the last scene is shown again, so an idle game does next to no work. It
+// also keeps a running average of how long a frame takes to build, from
+// which it suggests how often to tick. javalib still shows the scene on
+// every tick, so the fewer ticks the better: the pacer asks for the slowest
+// rate that keeps the clock right, and only slows down further when frames
+// are so costly that ticking that often would leave no time for anything else.
+class FramePacer {
+  // the tick rate asked for when frames are cheap, in seconds: the clock on
+  // screen turns over at most a tenth of a second late
+  static final double TICK_RATE = 0.1;
+  // the slowest tick rate, in seconds, at which the clock still shows every
+  // second
+  static final double MAX_TICK_RATE = 1.0;
+  // how much weight the latest frame gets in the average frame cost
+  static final double SMOOTHING = 0.1;
+
+  // whether something happened since the last frame
+  boolean dirty;
+  // when the clock on screen next shows a new second, in milliseconds
+  long nextSecond;
+  // the number of frames built, and the average time to build one in
+  // nanoseconds
+  int frames;
+  double frameNanos;
+
+  FramePacer() {
+    this.dirty = true;
+    this.nextSecond = 0;
+    this.frames = 0;
+    this.frameNanos = 0;
+  }
+
+  // EFFECT: Records that something happened that the next frame should show
+  void invalidate() {
+    this.dirty = true;
+  }
+
+  // Determines if a new frame is needed at the given time, in milliseconds
+  boolean frameDue(long now) {
+    return this.dirty || now >= this.nextSecond;
+  }
+
+  // EFFECT: Records that a frame was built at the given time, in
+  // milliseconds, and took the given number of nanoseconds
+  void frameBuilt(long now, long nanos) {
+    this.dirty = false;
+    this.nextSecond = (now / 1000 + 1) * 1000;
+    if (this.frames == 0) {
+      this.frameNanos = nanos;
+    }
+    else {
+      this.frameNanos += (nanos - this.frameNanos) * SMOOTHING;
+    }
+    this.frames++;
+  }
+
+  // Returns a tick rate, in seconds: the slowest one that keeps the clock
+  // right, unless building the average frame takes more than half of it
+  double tickRate() {
+    return Math.min(MAX_TICK_RATE, Math.max(TICK_RATE, 2 * this.frameNanos / 1e9));
+  }
+}
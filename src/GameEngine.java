@@ -0,0 +1,158 @@
+import java.util.*;
+
+// The rules of the game, without anything to do with drawing or input: it
+// generates a board, rotates pieces, moves the power station, and keeps track
+// of which pieces are powered and whether the game is won. It needs no World,
+// so it can be driven directly by tests, benchmarks or batch simulations, and
+// LightEmAll only has to turn clicks and key presses into calls on it.
+class GameEngine {
+  // The kinds of board that can be generated
+  static final int MANUAL = 0;
+  static final int FRACTAL = 1;
+  static final int KRUSKAL = 2;
+  static final int PRIM = 3;
+
+  // Random seed for rotation
+  private final Random RANDOBJ = new Random(1);
+
+  final int rows;
+  final int cols;
+  // makes the boards of this engine's kind
+  final IBoardGenerator generator;
+  // the wiring and power state of the board
+  BoardModel model;
+  // the breadth-first search used to find distances on the board
+  BoardSearch search;
+  // keeps the distances and power of the board up to date
+  PowerGrid power;
+  // told the moment the board is solved, if anything is listening
+  ISolvedListener listener;
+  // whether the board was solved when this engine last looked
+  boolean wasSolved;
+
+  GameEngine(int rows, int cols, int boardType) {
+    this(rows, cols, boardType, false);
+  }
+
+  // Constructor that chooses how Kruskal boards find their spanning tree
+  GameEngine(int rows, int cols, int boardType, boolean parallelMST) {
+    this(rows, cols, generatorFor(boardType, parallelMST));
+  }
+
+  // Constructor with the generator of any kind of board
+  GameEngine(int rows, int cols, IBoardGenerator generator) {
+    this.rows = rows;
+    this.cols = cols;
+    this.generator = generator;
+    this.generate();
+  }
+
+  // Returns the generator of the given type of board, where Kruskal boards
+  // may find their tree on every core
+  static IBoardGenerator generatorFor(int boardType, boolean parallelMST) {
+    if (boardType == MANUAL) {
+      return new ManualGenerator();
+    }
+    else if (boardType == FRACTAL) {
+      return new FractalBoardGenerator();
+    }
+    else if (boardType == KRUSKAL) {
+      return new KruskalGenerator(parallelMST);
+    }
+    else if (boardType == PRIM) {
+      return new PrimGenerator(new Random(1));
+    }
+    else {
+      throw new IllegalArgumentException("Unknown board type: " + boardType);
+    }
+  }
+
+  // EFFECT: Creates a new board of this engine's kind and powers it up
+  void generate() {
+    this.generator.generate(this);
+    this.update();
+  }
+
+  // EFFECT: Starts the game over, as the reset button does. Kruskal boards
+  // keep their spanning tree and are only scrambled again.
+  void reset() {
+    this.generator.reset(this);
+    this.update();
+  }
+
+  // EFFECT: Replaces the board with an empty one of this engine's size
+  void manualBoard() {
+    this.model = new BoardModel(this.rows, this.cols);
+    this.search = new BoardSearch(this.model);
+    this.power = new PowerGrid(this.model, this.search);
+  }
+
+  // EFFECT: Rotates the wiring by a random number
+  // Rotates all the pieces by a random amount
+  void rotatePieces() {
+    for (int i = 0; i < this.model.size(); i++) {
+      this.model.rotate(i, this.RANDOBJ.nextInt(4));
+    }
+  }
+
+  // EFFECT: Recomputes the radius and the power of every piece, but only if
+  // the wiring or the power station changed behind this engine's back
+  void update() {
+    if (!this.power.isCurrent()) {
+      this.power.recompute();
+    }
+    this.checkSolved();
+  }
+
+  // EFFECT: Makes the given listener hear when the board is solved, and tells
+  // it at once if the board is solved already, as a 1x1 board starts out
+  void listen(ISolvedListener listener) {
+    this.listener = listener;
+    this.wasSolved = false;
+    this.checkSolved();
+  }
+
+  // EFFECT: Tells the listener, if any, when the board has just become solved
+  void checkSolved() {
+    boolean solved = this.model.poweredCount == this.model.size();
+    if (solved && !this.wasSolved && this.listener != null) {
+      this.listener.onSolved(this);
+    }
+    this.wasSolved = solved;
+  }
+
+  // EFFECT: Rotates the piece at the given index clockwise, and updates the
+  // power of the pieces whose links changed
+  void rotate(int index) {
+    int oldWiring = this.model.wiring(index);
+    this.model.rotate(index);
+    this.power.rotated(index, oldWiring);
+    this.checkSolved();
+  }
+
+  // EFFECT: Moves the power station one piece in the given direction, if it is
+  // wired to that piece, and updates the power of every piece
+  // Returns whether the power station moved
+  boolean movePowerStation(int dir) {
+    int from = this.model.powerIndex;
+    if (!this.model.linked(from, dir)) {
+      return false;
+    }
+    this.model.setPowerStation(this.model.neighbor(from, dir));
+    this.power.moved(from);
+    this.checkSolved();
+    return true;
+  }
+
+  // Determines if the pieces at the two given indices are connected by wires
+  boolean connected(int from, int to) {
+    this.search.search(from);
+    return this.search.reached(to);
+  }
+
+  // Determines if the game is won: every piece is powered
+  boolean isSolved() {
+    this.update();
+    return this.model.poweredCount == this.model.size();
+  }
+}
@@ -0,0 +1,179 @@
+import java.awt.Color;
+import javalib.worldimages.*;
+
+// Represents one of the GamePieces, as a view over one cell of a BoardModel
+class GamePiece {
+  static final int CELL_LENGTH = 40;
+
+  // the board this piece belongs to, and its index on that board
+  final BoardModel model;
+  final int index;
+  int row;
+  int col;
+
+  // Constructor for a view over the cell at the given row and column of the model
+  GamePiece(BoardModel model, int row, int col) {
+    this.model = model;
+    this.index = model.index(row, col);
+    this.row = row;
+    this.col = col;
+  }
+
+  // Constructor for a standalone GamePiece, backed by its own one-cell model
+  GamePiece(int row, int col, boolean left, boolean right, boolean top, boolean bottom,
+      boolean powerStation) {
+    this.model = new BoardModel(1, 1);
+    this.index = 0;
+    this.row = row;
+    this.col = col;
+    this.model.setWiring(0, (left ? BoardModel.LEFT : 0) | (right ? BoardModel.RIGHT : 0)
+        | (top ? BoardModel.TOP : 0) | (bottom ? BoardModel.BOTTOM : 0));
+    if (powerStation) {
+      this.model.setPowerStation(0);
+    }
+  }
+
+  // Determines if this piece has a wire to the left
+  boolean left() {
+    return this.model.hasWire(this.index, BoardModel.LEFT);
+  }
+
+  // Determines if this piece has a wire to the right
+  boolean right() {
+    return this.model.hasWire(this.index, BoardModel.RIGHT);
+  }
+
+  // Determines if this piece has a wire to the top
+  boolean top() {
+    return this.model.hasWire(this.index, BoardModel.TOP);
+  }
+
+  // Determines if this piece has a wire to the bottom
+  boolean bottom() {
+    return this.model.hasWire(this.index, BoardModel.BOTTOM);
+  }
+
+  // Returns the 4-bit wiring mask of this piece
+  int wiring() {
+    return this.model.wiring(this.index);
+  }
+
+  // Determines if this piece holds the power station
+  boolean isPowerStation() {
+    return this.model.powerIndex == this.index;
+  }
+
+  // Determines if this piece is powered
+  boolean isPowered() {
+    return this.model.powered[this.index];
+  }
+
+  // Returns the distance of this piece from the power station
+  int distToPS() {
+    return this.model.dist[this.index];
+  }
+
+  // EFFECT: Adds a wire in the given direction to this piece
+  void addWire(int dir) {
+    this.model.addWire(this.index, dir);
+  }
+
+  // Determines if the given piece is the same as this one
+  boolean samePiece(GamePiece given) {
+    return (this.row == given.row && this.col == given.col);
+  }
+
+  // Determines if the given piece is at the same position as this one and is
+  // wired the same way
+  boolean sameWiring(GamePiece given) {
+    return this.samePiece(given) && this.wiring() == given.wiring()
+        && this.isPowerStation() == given.isPowerStation();
+  }
+
+  // Returns the green of this piece's wire color when it is powered: the
+  // wires fade from yellow at the power station to red at the radius
+  int gradient(int radius) {
+    return 255 - (this.distToPS() * 255 / radius);
+  }
+
+  // Draws each individual GamePiece
+  WorldImage drawPiece(int radius) {
+    if (this.isPowered()) {
+      return this.drawPiece(new Color(255, this.gradient(radius), 0));
+    }
+    return this.drawPiece(Color.GRAY);
+  }
+
+  // Draws this GamePiece, with the given color for its wires if it is powered
+  WorldImage drawPiece(Color poweredColor) {
+    WorldImage outline = new RectangleImage(CELL_LENGTH, CELL_LENGTH, OutlineMode.OUTLINE,
+        Color.BLACK);
+    WorldImage result = new OverlayImage(
+        new RectangleImage(CELL_LENGTH, CELL_LENGTH, OutlineMode.SOLID, Color.DARK_GRAY),
+        new EmptyImage());
+
+    if (this.isPowered()) {
+      LineImage vertLine = new LineImage(new Posn(0, CELL_LENGTH / 2), poweredColor);
+      LineImage horLine = new LineImage(new Posn(CELL_LENGTH / 2, 0), poweredColor);
+
+      // Connected to the left
+      if (this.left()) {
+        result = new OverlayOffsetAlign(AlignModeX.LEFT, AlignModeY.PINHOLE, horLine, 0, 0, result);
+      }
+      if (this.right()) {
+        result = new OverlayOffsetAlign(AlignModeX.RIGHT, AlignModeY.PINHOLE, horLine, 0, 0,
+            result);
+      }
+      if (this.top()) {
+        result = new OverlayOffsetAlign(AlignModeX.PINHOLE, AlignModeY.TOP, vertLine, 0, 0, result);
+      }
+      if (this.bottom()) {
+        result = new OverlayOffsetAlign(AlignModeX.PINHOLE, AlignModeY.BOTTOM, vertLine, 0, 0,
+            result);
+      }
+      if (this.isPowerStation()) {
+        WorldImage star = new StarImage(15, OutlineMode.SOLID, Color.CYAN);
+        result = new OverlayImage(star, result);
+      }
+    }
+    else {
+      LineImage vertLineNP = new LineImage(new Posn(0, CELL_LENGTH / 2), Color.GRAY);
+      LineImage horLineNP = new LineImage(new Posn(CELL_LENGTH / 2, 0), Color.GRAY);
+
+      // Connected to the left
+      if (this.left()) {
+        result = new OverlayOffsetAlign(AlignModeX.LEFT, AlignModeY.PINHOLE, horLineNP, 0, 0,
+            result);
+      }
+      if (this.right()) {
+        result = new OverlayOffsetAlign(AlignModeX.RIGHT, AlignModeY.PINHOLE, horLineNP, 0, 0,
+            result);
+      }
+      if (this.top()) {
+        result = new OverlayOffsetAlign(AlignModeX.PINHOLE, AlignModeY.TOP, vertLineNP, 0, 0,
+            result);
+      }
+      if (this.bottom()) {
+        result = new OverlayOffsetAlign(AlignModeX.PINHOLE, AlignModeY.BOTTOM, vertLineNP, 0, 0,
+            result);
+      }
+      if (this.isPowerStation()) {
+        WorldImage star = new StarImage(15, OutlineMode.SOLID, Color.CYAN);
+        result = new OverlayImage(star, result);
+      }
+    }
+
+    return new OverlayImage(outline, result);
+  }
+
+  // EFFECT: Rotates this piece's wiring
+  // When clicked, the GamePiece is rotated clockwise (90º)
+  void rotate() {
+    this.model.rotate(this.index);
+  }
+
+  // Returns a String representation of each GamePiece's location
+  public String toString() {
+    return "(" + (this.col + 1) + ", " + (this.row + 1) + ")";
+  }
+}
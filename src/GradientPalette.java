@@ -0,0 +1,56 @@
+import java.awt.Color;
+
+// The colors of powered wires, fading from yellow at the power station to red
+// at the edge of its radius. The fade is quantized to a fixed number of
+// levels, with one shared Color per level, and the level of every distance is
+// worked out again only when the radius changes. With 256 levels every color
+// is exactly the one drawPiece would compute.
+class GradientPalette {
+  // the number of levels that reproduces every color exactly
+  static final int LEVELS = 256;
+
+  final int levels;
+  // the color of every level, from red (0) to yellow (levels - 1)
+  final Color[] colors;
+  // the radius the levels of distances are currently for (0 if none yet)
+  int radius;
+  // the level of every distance from 0 to the radius
+  int[] levelOf;
+
+  GradientPalette(int levels) {
+    // Between two levels (red and yellow) and one per shade of green
+    this.levels = Math.max(2, Math.min(LEVELS, levels));
+    this.colors = new Color[this.levels];
+    for (int level = 0; level < this.levels; level++) {
+      this.colors[level] = new Color(255, level * 255 / (this.levels - 1), 0);
+    }
+    this.radius = 0;
+    this.levelOf = new int[0];
+  }
+
+  // EFFECT: Works out the level of every distance within the given radius,
+  // unless it already was for that radius
+  void update(int radius) {
+    if (radius == this.radius) {
+      return;
+    }
+    this.radius = radius;
+    if (this.levelOf.length <= radius) {
+      this.levelOf = new int[radius + 1];
+    }
+    for (int dist = 0; dist <= radius; dist++) {
+      int green = 255 - (dist * 255 / radius);
+      this.levelOf[dist] = (green * (this.levels - 1) + 127) / 255;
+    }
+  }
+
+  // Returns the level of a powered piece at the given distance
+  int level(int dist) {
+    return this.levelOf[dist];
+  }
+
+  // Returns the color of a powered piece at the given distance
+  Color color(int dist) {
+    return this.colors[this.levelOf[dist]];
+  }
+}
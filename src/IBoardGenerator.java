@@ -0,0 +1,12 @@
+// Makes the boards of one kind for a GameEngine
+interface IBoardGenerator {
+  // Returns the name of this kind of board, for the title
+  String name();
+
+  // EFFECT: Gives the engine a new board of this kind, with its power station
+  void generate(GameEngine engine);
+
+  // EFFECT: Gives the engine a new puzzle of this kind, as the reset button
+  // does
+  void reset(GameEngine engine);
+}
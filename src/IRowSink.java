@@ -0,0 +1,8 @@
+import java.io.*;
+
+// Somewhere to put the rows of a board as they are generated
+interface IRowSink {
+  // EFFECT: Takes the wiring masks of the given row, which are only valid
+  // until this returns
+  void acceptRow(int row, byte[] wiring) throws IOException;
+}
@@ -0,0 +1,5 @@
+// Something to tell when a GameEngine's board becomes solved
+interface ISolvedListener {
+  // EFFECT: Reacts to the given engine's board having just been solved
+  void onSolved(GameEngine engine);
+}
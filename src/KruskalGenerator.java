@@ -0,0 +1,124 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+// Scrambled random spanning trees, found with Kruskal's algorithm, or with
+// BoruvkaMST on every core. Either way the weights of a board's edges are
+// drawn a chunk at a time from the board's seed, as BoruvkaMST numbers them,
+// so both find the same tree for the same seed. In parallel the weights are
+// drawn on every core too and stay in an array by edge number, so no Edge is
+// made and nothing is sorted.
+class KruskalGenerator implements IBoardGenerator {
+  final boolean parallel;
+  // draws the seed of the weights of every board
+  final Random seeds;
+  // a list of ALL unique and sorted edges of the last board (found by
+  // Kruskal's algorithm only)
+  ArrayList<Edge> allEdges;
+  // a list of edges of the minimum spanning tree of the last board (found by
+  // Kruskal's algorithm only)
+  ArrayList<Edge> mst;
+  // the numbers of the edges of the tree of the last board, as BoruvkaMST
+  // numbers them (found in parallel only)
+  int[] tree;
+
+  KruskalGenerator(boolean parallel) {
+    this(parallel, 1);
+  }
+
+  // Constructor with the seed that the seeds of the boards are drawn from
+  KruskalGenerator(boolean parallel, long seed) {
+    this.parallel = parallel;
+    this.seeds = new Random(seed);
+  }
+
+  // Returns the name of this kind of board
+  public String name() {
+    return "Kruskal's Enigma";
+  }
+
+  // EFFECT: Gives the engine a scrambled spanning tree, and keeps its edges
+  // and its tree
+  public void generate(GameEngine engine) {
+    engine.manualBoard();
+    long seed = this.seeds.nextLong();
+    byte[] weights = new byte[2 * engine.model.size()];
+    if (this.parallel) {
+      BoruvkaMST boruvka = new BoruvkaMST(engine.rows, engine.cols, weights);
+      boruvka.randomWeights(seed, ForkJoinPool.commonPool());
+      this.allEdges = null;
+      this.mst = null;
+      this.tree = boruvka.run(ForkJoinPool.commonPool());
+      boruvka.connect(engine.model, this.tree);
+    }
+    else {
+      BoruvkaMST.randomWeights(weights, seed);
+      this.allEdges = new ArrayList<Edge>(engine.model.edgeCount());
+      this.addAllEdges(engine.model, weights);
+      this.sortEdges();
+      this.mst = new ArrayList<Edge>();
+      this.tree = null;
+      this.addToMST(engine.model.size());
+      this.connect(engine.model);
+    }
+    engine.model.setPowerStation(engine.model.index(0, 0));
+    engine.rotatePieces();
+  }
+
+  // EFFECT: Scrambles the same tree again, with the power station back in
+  // the corner
+  public void reset(GameEngine engine) {
+    engine.rotatePieces();
+    engine.model.setPowerStation(engine.model.index(0, 0));
+  }
+
+  // EFFECT: Fills the allEdges field with the edges
+  // Adds every edge of the given board exactly once, as the edge from each
+  // cell to the cell on its right and the edge to the cell below it, with
+  // its weight from the given weights by BoruvkaMST's numbering
+  void addAllEdges(BoardModel model, byte[] weights) {
+    for (int i = 0; i < model.size(); i++) {
+      if (model.neighbor(i, BoardModel.RIGHT) != -1) {
+        this.allEdges.add(new Edge(i, i + 1, weights[2 * i]));
+      }
+      if (model.neighbor(i, BoardModel.BOTTOM) != -1) {
+        this.allEdges.add(new Edge(i, i + model.cols, weights[2 * i + 1]));
+      }
+    }
+  }
+
+  // EFFECT: The allEdges arraylist is put in non-descending order
+  // Sorts the edges by weight, bucketing them when all weights are in Edge's range
+  void sortEdges() {
+    BucketSortByWeight buckets = new BucketSortByWeight(Edge.WEIGHT_RANGE);
+    if (buckets.fits(this.allEdges)) {
+      buckets.sort(this.allEdges);
+    }
+    else {
+      this.allEdges.sort(new SortByWeight());
+    }
+  }
+
+  // EFFECT: Adds all the appropriate edges to the MST field
+  // If the edge does not create a cycle, add it to the minimum spanning tree.
+  // Stops as soon as the tree spans all the given number of cells.
+  void addToMST(int size) {
+    UnionFind representatives = new UnionFind(size);
+
+    for (Edge curr : this.allEdges) {
+      if (representatives.sets <= 1) {
+        break;
+      }
+      if (representatives.union(curr.from, curr.to)) {
+        this.mst.add(curr);
+      }
+    }
+  }
+
+  // EFFECT: Adds the wires to each node for each edge of the tree
+  // Connects all the wires of the minimum spanning tree on the given board
+  void connect(BoardModel model) {
+    for (Edge e : this.mst) {
+      e.connectNodes(model);
+    }
+  }
+}
@@ -16,447 +16,217 @@ import javalib.worldimages.*;
  * */
 
 // The main game class
-class LightEmAll extends World {
-  // Random seed for rotation
-  private final Random RANDOBJ = new Random(1);
+// Draws the board and turns clicks and key presses into moves; the rules of
+// the game live in its GameEngine
+class LightEmAll extends World implements ISolvedListener {
   public int currSec = (int) (System.currentTimeMillis() / 1000);
+  // the second the board was solved in, which stops the clock (-1 until then)
+  int solvedSec;
 
-  // a list of columns of GamePieces
-  ArrayList<ArrayList<GamePiece>> board;
-  // a list of all nodes
-  ArrayList<GamePiece> nodes;
-  // a list of ALL unique and sorted edges
-  ArrayList<Edge> allEdges;
-  // a list of edges of the minimum spanning tree
-  ArrayList<Edge> mst;
-  // the width and height of the board
+  // the game this world displays
+  GameEngine engine;
+  // the width and height of the view of the board
   int width;
   int height;
   int score;
   // height is the height of just the board/game
   // boardHeight is the height including the extra space (for extra credit)
   int boardHeight;
+  // the kind of board, as one of GameEngine's types (-1 if the game was made
+  // with a generator or an engine of its own)
   int boardType;
   // the current location of the power station, as well as its effective radius
   int powerRow;
   int powerCol;
   int radius;
-  HashMap<GamePiece, Integer> graph;
+  // the colors of powered wires, and the image of every kind of piece drawn so far
+  GradientPalette palette;
+  TileCache tiles;
+  // which part of the board is in view, and how big
+  Camera camera;
+  // the picture of the board kept between frames, if drawing with one
+  BoardRaster raster;
+  // the strip above the board as last drawn, and the time and moves it shows
+  WorldImage hud;
+  String hudTime;
+  int hudScore;
+  // the board and its version that the power and the win were last settled
+  // for, and whether that board was solved
+  BoardModel settledModel;
+  int settledVersion;
+  boolean solved;
+  // the scene last built, and the camera version and strip it shows (null
+  // whenever the board has changed since)
+  WorldScene scene;
+  int sceneCamera;
+  WorldImage sceneHud;
+  // decides which ticks need a new scene
+  FramePacer pacer;
 
   LightEmAll(int numRows, int numCols, int boardType) {
-
-    this.width = numCols * GamePiece.CELL_LENGTH;
-    this.height = numRows * GamePiece.CELL_LENGTH;
-    this.boardHeight = numRows * GamePiece.CELL_LENGTH + (this.height / 5);
-
-    // 0 is manualGeneration, 1 is fractal, 2 is random
-    if (boardType == 0) {
-      this.board = this.makeBoard();
-      this.nodes = new ArrayList<GamePiece>();
-      this.getNodes();
-    }
-    else if (boardType == 1) {
-      this.board = this.manualBoard();
-      this.fractalBoard(numRows, numCols, 0, 0);
-      this.board.get(0).get(this.width / GamePiece.CELL_LENGTH / 2).powerStation = true;
-      this.powerCol = this.width / GamePiece.CELL_LENGTH / 2;
-      this.powerRow = 0;
-      this.nodes = new ArrayList<GamePiece>();
-      this.getNodes();
-    }
-    // When the user enters 2
-    else if (boardType == 2) {
-      this.board = this.manualBoard();
-      // Assigns neighbors to each GamePiece
-      for (ArrayList<GamePiece> row : this.board) {
-        for (GamePiece gp : row) {
-          gp.assignNeighbors(this.board);
-        }
-      }
-      this.allEdges = new ArrayList<Edge>();
-      this.addAllEdges();
-      this.sortEdges();
-      this.board.get(0).get(0).powerStation = true;
-      this.powerCol = 0;
-      this.powerRow = 0;
-      this.nodes = new ArrayList<GamePiece>();
-      this.getNodes();
-      this.mst = new ArrayList<Edge>();
-      this.addToMST();
-      this.connect();
-      this.rotatePieces();
-    }
-    this.boardType = boardType;
-    this.graph = new HashMap<GamePiece, Integer>();
-    this.initHash();
-    this.radius = this.calcRadius();
-    this.getPowered();
-    this.score = 0;
+    this(numRows, numCols, boardType, GradientPalette.LEVELS);
   }
 
-  // EFFECT: Rotates the wiring by a random number
-  // Rotates all the GamePieces by a random amount
-  void rotatePieces() {
-    for (ArrayList<GamePiece> row : this.board) {
-      for (GamePiece gp : row) {
-        int rand = this.RANDOBJ.nextInt(4);
-        while (rand != 0) {
-          gp.rotate();
-          rand--;
-        }
-      }
-    }
-  }
-
-  // EFFECT: Fills the allEdges field with the edges
-  // Adds all the edges to the allEdges field
-  void addAllEdges() {
-    // In each row in the board
-    for (ArrayList<GamePiece> row : this.board) {
-      // in each gp in the row
-      for (GamePiece gp : row) {
-        // for each neighbhor
-        for (GamePiece neighbhor : gp.neighbors) {
-          // Ensures the same edge is not added twice.
-          // A to B is the same as B to A.
-          if (this.existsEdge(neighbhor, gp, this.allEdges)) {
-            // DON'T ADD EDGE
-          }
-          else {
-            this.allEdges.add(new Edge(gp, neighbhor));
-          }
-        }
-      }
-    }
+  // Constructor with the number of levels of the power gradient: fewer levels
+  // mean fewer distinct images of pieces
+  LightEmAll(int numRows, int numCols, int boardType, int gradientLevels) {
+    // 0 is manualGeneration, 1 is fractal, 2 is random (Kruskal), 3 is random (Prim)
+    this(new GameEngine(numRows, numCols, boardType), gradientLevels);
+    this.boardType = boardType;
   }
 
-  // EFFECT: The allEdges arraylist is put in non-descending order
-  // Sorts the edges by weight
-  void sortEdges() {
-    this.allEdges.sort(new SortByWeight());
+  // Constructor with the generator of any kind of board
+  LightEmAll(int numRows, int numCols, IBoardGenerator generator) {
+    this(new GameEngine(numRows, numCols, generator), GradientPalette.LEVELS);
   }
 
-  // Determines if there already exists an edge with the given GamePieces
-  boolean existsEdge(GamePiece from, GamePiece to, ArrayList<Edge> pool) {
-    for (Edge edge : pool) {
-      if (edge.fromNode.samePiece(from) && edge.toNode.samePiece(to)) {
-        return true;
-      }
-    }
-    return false;
-  }
-
-  // EFFECT: Adds all the appropriate edges to the MST field
-  // If the edge does not create a cycle, add it to the minimum spanning tree.
-  void addToMST() {
-    HashMap<String, String> representatives = new HashMap<String, String>();
-    ArrayList<Edge> sortedEdges = new ArrayList<Edge>(this.allEdges); // an alias
-
-    // Initially links each node to itself
-    for (GamePiece gp : this.nodes) {
-      representatives.put(gp.toString(), gp.toString());
-    }
+  // Constructor that displays the given engine's game
+  LightEmAll(GameEngine engine, int gradientLevels) {
 
-    while (!mstDone(representatives)) {
-      Edge curr = sortedEdges.remove(0);
-      if (this.findRep(representatives, curr.fromNode.toString())
-          .equals(this.findRep(representatives, curr.toNode.toString()))) {
-        // Ignore this edge
-      }
-      else {
-        this.mst.add(curr);
-        representatives.put(findRep(representatives, curr.fromNode.toString()),
-            findRep(representatives, curr.toNode.toString()));
-        // method that updates all nodes that previously had the rep that is changed
-      }
-    }
-  }
+    // Boards bigger than the largest view are seen through the camera
+    this.camera = new Camera(engine.rows, engine.cols);
+    this.width = this.camera.viewWidth;
+    this.height = this.camera.viewHeight;
+    this.boardHeight = this.height + (this.height / 5);
 
-  // EFFECT: Adds the wires to each node for each GamePiece
-  // Connects all the wires for each GamePiece
-  void connect() {
-    for (Edge e : this.mst) {
-      e.connectNodes();
-    }
+    this.engine = engine;
+    this.solvedSec = -1;
+    this.boardType = -1;
+    this.palette = new GradientPalette(gradientLevels);
+    this.tiles = new TileCache(this.palette);
+    this.pacer = new FramePacer();
+    this.attach();
+    this.score = 0;
+    this.engine.listen(this);
   }
 
-  // Finds the representative of each Node
-  String findRep(HashMap<String, String> reps, String node) {
-    if (reps.get(node).equals(node)) {
-      return node;
-    }
-    else {
-      return findRep(reps, reps.get(node));
+  // EFFECT: Makes the raster, if any, show the engine's current board
+  void attach() {
+    if (this.raster != null && this.raster.model != this.engine.model) {
+      this.renderWithRaster();
     }
+    this.updatePower();
   }
 
-  // Determines if MST has been constructed (only one representative is itself)
-  boolean mstDone(HashMap<String, String> representatives) {
-    int numSelf = 0;
-
-    Iterator<Map.Entry<String, String>> it = representatives.entrySet().iterator();
-
-    while (it.hasNext()) {
-      Map.Entry<String, String> edge = it.next();
-      if (edge.getKey().equals(edge.getValue())) {
-        numSelf++;
-      }
-    }
-    return numSelf <= 1;
+  // Returns a view of the piece at the given row and column of the engine's
+  // current board
+  GamePiece piece(int row, int col) {
+    return new GamePiece(this.engine.model, row, col);
   }
 
-  // EFFECT: Sets isPowered to true if the cell has power
-  // Runs through the GamePieces and determines if they are powered
-  void getPowered() {
-    this.setDepths(this.powerRow, this.powerCol);
-
-    for (GamePiece gp : this.nodes) {
-      if (this.piecesConnected(this.board.get(powerRow).get(powerCol), gp)
-          && (this.graph.get(gp) <= this.radius)) {
-        gp.isPowered = true;
-      }
-      else {
-        gp.isPowered = false;
-      }
-      gp.distToPS = this.graph.get(gp);
+  // Determines if two neighbors are connected
+  boolean twoPiecesConnected(GamePiece target, GamePiece other) {
+    if (target.samePiece(other)) {
+      return true;
     }
-  }
 
-  // Determines if two GamePieces are connected
-  boolean piecesConnected(GamePiece target, GamePiece other) {
-    return piecesConnectedAccumulator(target, other, new ArrayList<GamePiece>());
+    int dir = target.model.directionTo(target.index, other.index);
+    return dir != 0 && target.model.linked(target.index, dir);
   }
 
-  // Determines if two GamePieces are connected using accumulator
-  boolean piecesConnectedAccumulator(GamePiece target, GamePiece other,
-      ArrayList<GamePiece> soFar) {
-    return leftConnected(target, other, soFar) || rightConnected(target, other, soFar)
-        || topConnected(target, other, soFar) || bottomConnected(target, other, soFar);
+  // EFFECT: Brings the engine's power up to date, and copies the position of
+  // the power station and its radius for drawing
+  void updatePower() {
+    this.engine.update();
+    this.radius = this.engine.power.radius;
+    this.powerRow = this.engine.model.rowOf(this.engine.model.powerIndex);
+    this.powerCol = this.engine.model.colOf(this.engine.model.powerIndex);
   }
 
-  // Determines if GamePiece on left is connected
-  boolean leftConnected(GamePiece target, GamePiece other, ArrayList<GamePiece> soFar) {
-    int rowVal = target.row;
-    int colVal = target.col;
-
-    if (colVal > 0 && target.left && this.board.get(rowVal).get(colVal - 1).right) {
-      if (soFar.contains(this.board.get(rowVal).get(colVal - 1))) {
-        // Do Nothing
-      }
-      else if (this.board.get(rowVal).get(colVal - 1).samePiece(other)) {
-        return true;
-      }
-      else {
-        soFar.add(this.board.get(rowVal).get(colVal - 1));
-        return piecesConnectedAccumulator(this.board.get(rowVal).get(colVal - 1), other, soFar);
-      }
-    }
-    return false;
-  }
-
-  // Determines if GamePiece on right is connected
-  boolean rightConnected(GamePiece target, GamePiece other, ArrayList<GamePiece> soFar) {
-    int rowVal = target.row;
-    int colVal = target.col;
-
-    if (colVal < this.width / GamePiece.CELL_LENGTH - 1 && target.right
-        && this.board.get(rowVal).get(colVal + 1).left) {
-      if (soFar.contains(this.board.get(rowVal).get(colVal + 1))) {
-        // Do Nothing
-      }
-      else if (this.board.get(rowVal).get(colVal + 1).samePiece(other)) {
-        return true;
-      }
-      else {
-        soFar.add(this.board.get(rowVal).get(colVal + 1));
-        return piecesConnectedAccumulator(this.board.get(rowVal).get(colVal + 1), other, soFar);
-      }
-    }
-    return false;
-  }
-
-  // Determines if GamePiece above is connected
-  boolean topConnected(GamePiece target, GamePiece other, ArrayList<GamePiece> soFar) {
-    int rowVal = target.row;
-    int colVal = target.col;
-
-    if (rowVal > 0 && target.top && this.board.get(rowVal - 1).get(colVal).bottom) {
-      if (soFar.contains(this.board.get(rowVal - 1).get(colVal))) {
-        // Do Nothing
-      }
-      else if (this.board.get(rowVal - 1).get(colVal).samePiece(other)) {
-        return true;
-      }
-      else {
-        soFar.add(this.board.get(rowVal - 1).get(colVal));
-        return piecesConnectedAccumulator(this.board.get(rowVal - 1).get(colVal), other, soFar);
-      }
+  // Makes the scene with all the game pieces drawn.
+  // Now integrates timer, score, etc.
+  // A scene is only built once for every change of the board, the camera or
+  // the strip above the board, however often it is asked for in a tick. Until
+  // there is input or the clock shows a new second, the last one is reused
+  // without even looking at the strip.
+  public WorldScene makeScene() {
+    int extraSpace = this.boardHeight - this.height;
+    this.settle();
+    long now = System.currentTimeMillis();
+    if (this.scene != null && this.sceneCamera == this.camera.version
+        && !this.pacer.frameDue(now)) {
+      return this.scene;
     }
-    return false;
-  }
 
-  // Determines if GamePiece below is connected
-  boolean bottomConnected(GamePiece target, GamePiece other, ArrayList<GamePiece> soFar) {
-    int rowVal = target.row;
-    int colVal = target.col;
-
-    if (rowVal < this.height / GamePiece.CELL_LENGTH - 1 && target.bottom
-        && this.board.get(rowVal + 1).get(colVal).top) {
-      if (soFar.contains(this.board.get(rowVal + 1).get(colVal))) {
-        // Do Nothing
-      }
-      else if (this.board.get(rowVal + 1).get(colVal).samePiece(other)) {
-        return true;
-      }
-      else {
-        soFar.add(this.board.get(rowVal + 1).get(colVal));
-        return piecesConnectedAccumulator(this.board.get(rowVal + 1).get(colVal), other, soFar);
-      }
+    long start = System.nanoTime();
+    WorldImage extraSpaceRect = this.drawHud();
+    if (this.scene != null && this.sceneCamera == this.camera.version
+        && this.sceneHud == extraSpaceRect) {
+      this.pacer.frameBuilt(now, System.nanoTime() - start);
+      return this.scene;
     }
-    return false;
-  }
+    WorldScene scene = new WorldScene(this.width, this.height);
+    this.palette.update(this.radius);
 
-  // Determines if two neighbors are connected
-  boolean twoPiecesConnected(GamePiece target, GamePiece other) {
-    if (target.samePiece(other)) {
-      return true;
+    // Zoomed out this far, cells are drawn as flat blocks, which only a
+    // raster can do
+    if (this.raster == null && this.camera.cellSize < BoardRaster.LOD_CELL_SIZE) {
+      this.renderWithRaster();
     }
-
-    // target is ABOVE other
-    if (target.row + 1 == other.row && target.col == other.col) {
-      return target.bottom && other.top;
-    } // target is BELOW other
-    else if (target.row - 1 == other.row && target.col == other.col) {
-      return target.top && other.bottom;
-    } // target is on LEFT of other
-    else if (target.col + 1 == other.col && target.row == other.row) {
-      return target.right && other.left;
-    } // target is on RIGHT of other
-    else if (target.col - 1 == other.col && target.row == other.row) {
-      return target.left && other.right;
+    if (this.raster != null) {
+      this.raster.update();
+      scene.placeImageXY(this.raster.image, this.width / 2, extraSpace + this.height / 2);
     }
-    return false;
-  }
-
-  // Flattens the graph into a list of GamePieces
-  void getNodes() {
-    for (ArrayList<GamePiece> row : this.board) {
-      for (GamePiece gp : row) {
-        this.nodes.add(gp);
+    else {
+      // Only the cells in view are drawn, straight from the board
+      BoardModel model = this.engine.model;
+      int half = this.camera.cellSize / 2;
+      this.tiles.scaleTo(this.camera.scale());
+      for (int row = this.camera.firstRow(); row < this.camera.endRow(); row++) {
+        for (int col = this.camera.firstCol(); col < this.camera.endCol(); col++) {
+          scene.placeImageXY(this.tiles.draw(model, model.index(row, col)),
+              this.camera.screenX(col) + half, this.camera.screenY(row) + half + extraSpace);
+        }
       }
     }
+    scene.placeImageXY(extraSpaceRect, this.width / 2, extraSpace / 2);
+    this.scene = scene;
+    this.sceneCamera = this.camera.version;
+    this.sceneHud = extraSpaceRect;
+    this.pacer.frameBuilt(now, System.nanoTime() - start);
+    return scene;
   }
 
-  // Creates the initial hashmap with all distances set to -1
-  void initHash() {
-    for (GamePiece gp : this.nodes) {
-      this.graph.put(gp, -1);
+  // EFFECT: Brings the power up to date and decides whether the game is won,
+  // once for every change of the board, so that the win check and the scene
+  // share that work instead of each doing it again
+  void settle() {
+    BoardModel model = this.engine.model;
+    if (this.settledModel != model || this.settledVersion != model.version) {
+      this.updatePower();
+      this.solved = this.engine.isSolved();
+      this.settledModel = model;
+      this.settledVersion = model.version;
+      this.scene = null;
+      this.pacer.invalidate();
     }
   }
 
-  // Sets every value to the correct distance and returns the last value in BFS
-  GamePiece setDepths(int yPos, int xPos) {
-    GamePiece lastFound = this.board.get(yPos).get(xPos);
-
-    int depth = 0;
-
-    // Worklist for BFS
-    ArrayList<GamePiece> worklist = new ArrayList<GamePiece>();
-    worklist.add(this.board.get(yPos).get(xPos));
-
-    // Accumulate all the GamePieces already visited
-    ArrayList<GamePiece> soFar = new ArrayList<GamePiece>();
-    soFar.add(this.board.get(yPos).get(xPos));
-
-    // Distance from home is zero for the home node
-    this.graph.put(this.board.get(yPos).get(xPos), depth);
-
-    while (!worklist.isEmpty()) {
-      GamePiece listFirst = worklist.get(0);
-      int rowVal = listFirst.row;
-      int colVal = listFirst.col;
-
-      // Check ABOVE target
-      if (rowVal > 0 && this.twoPiecesConnected(listFirst, this.board.get(rowVal - 1).get(colVal))
-          && !(soFar.contains(this.board.get(rowVal - 1).get(colVal)))) {
-
-        worklist.add(this.board.get(rowVal - 1).get(colVal));
-        this.graph.put(this.board.get(rowVal - 1).get(colVal),
-            this.graph.get(this.board.get(rowVal).get(colVal)) + 1);
-
-        if (graph.get(this.board.get(rowVal - 1).get(colVal)) > graph.get(lastFound)) {
-          lastFound = this.board.get(rowVal - 1).get(colVal);
-        }
-        soFar.add(this.board.get(rowVal - 1).get(colVal));
-      }
-
-      // Check BELOW target
-      if (rowVal + 1 < this.height / GamePiece.CELL_LENGTH
-          && this.twoPiecesConnected(listFirst, this.board.get(rowVal + 1).get(colVal))
-          && !(soFar.contains(this.board.get(rowVal + 1).get(colVal)))) {
-
-        worklist.add(this.board.get(rowVal + 1).get(colVal));
-        this.graph.put(this.board.get(rowVal + 1).get(colVal),
-            this.graph.get(this.board.get(rowVal).get(colVal)) + 1);
-
-        if (graph.get(this.board.get(rowVal + 1).get(colVal)) > graph.get(lastFound)) {
-          lastFound = this.board.get(rowVal + 1).get(colVal);
-        }
-        soFar.add(this.board.get(rowVal + 1).get(colVal));
-      }
-
-      // Check LEFT OF target
-      if (colVal > 0 && this.twoPiecesConnected(listFirst, this.board.get(rowVal).get(colVal - 1))
-          && !(soFar.contains(this.board.get(rowVal).get(colVal - 1)))) {
-
-        worklist.add(this.board.get(rowVal).get(colVal - 1));
-        this.graph.put(this.board.get(rowVal).get(colVal - 1),
-            this.graph.get(this.board.get(rowVal).get(colVal)) + 1);
-
-        if (graph.get(this.board.get(rowVal).get(colVal - 1)) > graph.get(lastFound)) {
-          lastFound = this.board.get(rowVal).get(colVal - 1);
-        }
-        soFar.add(this.board.get(rowVal).get(colVal - 1));
-      }
-
-      // Check RIGHT OF target
-      if (colVal + 1 < this.width / GamePiece.CELL_LENGTH
-          && this.twoPiecesConnected(listFirst, this.board.get(rowVal).get(colVal + 1))
-          && !(soFar.contains(this.board.get(rowVal).get(colVal + 1)))) {
-
-        worklist.add(this.board.get(rowVal).get(colVal + 1));
-        this.graph.put(this.board.get(rowVal).get(colVal + 1),
-            this.graph.get(this.board.get(rowVal).get(colVal)) + 1);
-
-        if (graph.get(this.board.get(rowVal).get(colVal + 1)) > graph.get(lastFound)) {
-          lastFound = this.board.get(rowVal).get(colVal + 1);
-        }
-        soFar.add(this.board.get(rowVal).get(colVal + 1));
-      }
-      worklist.remove(0);
-    }
-
-    return lastFound;
+  // EFFECT: Settles the game once at the start of every tick
+  public void onTick() {
+    this.settle();
   }
 
-  // Calculates the radius from the power station
-  int calcRadius() {
-    GamePiece lastFound = setDepths(this.powerRow, this.powerCol);
-    lastFound = setDepths(lastFound.row, lastFound.col);
-    return (this.graph.get(lastFound) / 2) + 1;
+  // EFFECT: Switches to drawing the board from a picture kept between frames,
+  // in which only the pieces that changed are repainted
+  void renderWithRaster() {
+    this.raster = new BoardRaster(this.engine.model, this.palette, this.camera);
+    this.scene = null;
   }
 
-  // Makes the scene with all the game pieces drawn.
-  // Now integrates timer, score, etc.
-  public WorldScene makeScene() {
+  // Draws the strip above the board with the time, the moves, the title and
+  // the reset button. It is only drawn again when the time or moves changed.
+  WorldImage drawHud() {
+    String timeText = this.processTime();
+    if (this.hud != null && timeText.equals(this.hudTime) && this.score == this.hudScore) {
+      return this.hud;
+    }
     int extraSpace = this.boardHeight - this.height;
     int indentSpace = extraSpace / 10;
-    this.radius = calcRadius();
-    this.getPowered();
 
     WorldImage extraSpaceRect = new RectangleImage(this.width, extraSpace, OutlineMode.SOLID,
         Color.DARK_GRAY);
-    WorldImage time = new TextImage("Time: " + this.processTime(), this.width / 22, Color.white);
+    WorldImage time = new TextImage("Time: " + timeText, this.width / 22, Color.white);
     WorldImage score = new TextImage("Moves: " + this.score, this.width / 22, Color.white);
     WorldImage gameTitle = new TextImage(this.processTitle(), this.width / 18, Color.white);
     WorldImage resetText = new TextImage("RESET", extraSpace / 8, Color.white);
@@ -474,35 +244,24 @@ class LightEmAll extends World {
     extraSpaceRect = new OverlayOffsetAlign(AlignModeX.RIGHT, AlignModeY.MIDDLE, resetButton,
         indentSpace, 0, extraSpaceRect);
 
-    WorldScene scene = new WorldScene(this.width, this.height);
-
-    for (ArrayList<GamePiece> row : this.board) {
-      for (GamePiece cell : row) {
-        scene.placeImageXY(cell.drawPiece(this.radius),
-            cell.col * GamePiece.CELL_LENGTH + GamePiece.CELL_LENGTH / 2,
-            (cell.row * GamePiece.CELL_LENGTH + GamePiece.CELL_LENGTH / 2) + extraSpace);
-      }
-    }
-    scene.placeImageXY(extraSpaceRect, this.width / 2, extraSpace / 2);
-    return scene;
+    this.hud = extraSpaceRect;
+    this.hudTime = timeText;
+    this.hudScore = this.score;
+    return this.hud;
   }
 
-  // Returns the title of the game depending on the boardType the user entered
+  // Returns the title of the game depending on the kind of board being played
   String processTitle() {
-    if (this.boardType == 0) {
-      return "Manual Generation";
-    }
-    else if (this.boardType == 1) {
-      return "Fractal Puzzle";
-    }
-    else {
-      return "Kruskal's Enigma";
-    }
+    return this.engine.generator.name();
   }
 
   // Returns the correctly formatted time as String, accounting for minutes
   String processTime() {
-    int seconds = (int) (System.currentTimeMillis() / 1000) - currSec;
+    int now = (int) (System.currentTimeMillis() / 1000);
+    if (this.solvedSec != -1) {
+      now = this.solvedSec;
+    }
+    int seconds = now - currSec;
 
     int min = seconds / 60;
     seconds = seconds % 60;
@@ -525,134 +284,6 @@ class LightEmAll extends World {
     return minStr + ":" + secStr;
   }
 
-  // Not used anymore
-  // Creates a board with the manual generation
-  public ArrayList<ArrayList<GamePiece>> makeBoard() {
-    ArrayList<ArrayList<GamePiece>> boardResult = new ArrayList<ArrayList<GamePiece>>();
-    int midPointH = (this.height / GamePiece.CELL_LENGTH) / 2;
-    int midPointW = (this.width / GamePiece.CELL_LENGTH) / 2;
-
-    for (int i = 0; i < this.height / GamePiece.CELL_LENGTH; i++) {
-      ArrayList<GamePiece> rowResult = new ArrayList<GamePiece>();
-      // Midpoint is used to locate the middle of the board or as close as possible.
-      for (int j = 0; j < this.width / GamePiece.CELL_LENGTH; j++) {
-        if (i == midPointH && j == midPointW) {
-          rowResult.add(new GamePiece(i, j, true, true, true, true, true));
-          this.powerCol = midPointW;
-          this.powerRow = midPointH;
-        }
-        else if (i == midPointH) {
-          rowResult.add(new GamePiece(i, j, true, true, true, true, false));
-        }
-        else {
-          rowResult.add(new GamePiece(i, j, true, true, false, false, false));
-        }
-      }
-      boardResult.add(rowResult);
-    }
-    return boardResult;
-  }
-
-  // Creates the game board with empty cells
-  public ArrayList<ArrayList<GamePiece>> manualBoard() {
-    ArrayList<ArrayList<GamePiece>> boardResult = new ArrayList<ArrayList<GamePiece>>();
-    for (int i = 0; i < this.height / GamePiece.CELL_LENGTH; i++) {
-      ArrayList<GamePiece> rowResult = new ArrayList<GamePiece>();
-      for (int j = 0; j < this.width / GamePiece.CELL_LENGTH; j++) {
-        rowResult.add(new GamePiece(i, j, false, false, false, false, false));
-      }
-      boardResult.add(rowResult);
-    }
-    return boardResult;
-  }
-
-  // NOT USED FOR PART 3
-  // Creates the game board using a subdivision algorithm for fractal-like wiring
-  public void fractalBoard(int numRows, int numCols, int currRow, int currCol) {
-    int startRow = currRow;
-    int startCol = currCol;
-
-    if (numRows == 1 || numCols == 1) {
-      // At the base case of one row or one column, irrespective
-      // of the other dimension, the program should stop. No U should be drawn.
-      // This is done because we shouldn't do anything if it is just one row/col
-    }
-
-    // Initially draw a U-shaped wire formation around the outside of the given grid
-
-    else {
-      // Top left of U
-      this.board.get(startRow).get(startCol).bottom = true;
-      // Bottom left
-      this.board.get(startRow + numRows - 1).get(startCol).right = true;
-      this.board.get(startRow + numRows - 1).get(startCol).top = true;
-      // Bottom right
-      this.board.get(startRow + numRows - 1).get(startCol + numCols - 1).left = true;
-      this.board.get(startRow + numRows - 1).get(startCol + numCols - 1).top = true;
-      // Top right
-      this.board.get(startRow).get(startCol + numCols - 1).bottom = true;
-      // Sides of U
-      for (int i = startRow + 1; i < startRow + numRows - 1; i++) {
-        this.board.get(i).get(startCol).top = true;
-        this.board.get(i).get(startCol).bottom = true;
-        this.board.get(i).get(startCol + numCols - 1).top = true;
-        this.board.get(i).get(startCol + numCols - 1).bottom = true;
-      }
-      // Bottom row
-      for (int i = startCol + 1; i < startCol + numCols - 1; i++) {
-        this.board.get(startRow + numRows - 1).get(i).left = true;
-        this.board.get(startRow + numRows - 1).get(i).right = true;
-      }
-    }
-
-    if (numRows == 1 || numCols == 1 || numCols == 2) {
-      // We don't do anything if it is just one row/col or two columns
-    }
-    // When there is only one row, all pieces should have the top field be true.
-    else if (numRows == 1 && numCols > 2) {
-      this.fractalBoard(1, (int) Math.ceil(numCols / 2), currRow, currCol);
-      this.fractalBoard(1, numCols / 2, currRow, (int) Math.ceil(currCol / 2));
-    }
-    // Other base cases:
-    else if (numRows == 1 && numCols == 2) {
-      this.board.get(startRow).get(startCol).right = true;
-      this.board.get(startRow).get(startCol + 1).left = true;
-
-    }
-    else if (numRows == 2 && numCols == 1) {
-      this.board.get(startRow).get(startCol).bottom = true;
-      this.board.get(startRow + 1).get(startCol).top = true;
-    }
-    else if (numRows == 2) {
-      for (int i = startCol + 1; i < startCol + numCols - 1; i++) {
-        this.board.get(startRow).get(i).bottom = true;
-        this.board.get(startRow + 1).get(i).top = true;
-      }
-    }
-
-    else if (numRows >= 3 || numCols >= 3) {
-      // Top left quadrant
-      fractalBoard((int) Math.ceil(numRows / 2.0), (int) Math.ceil(numCols / 2.0), currRow,
-          currCol);
-
-      // Top right quadrant
-      fractalBoard((int) Math.ceil(numRows / 2.0), numCols / 2, currRow,
-          currCol + (int) Math.ceil(numCols / 2.0));
-
-      // Bottom left quadrant
-      fractalBoard(numRows / 2, (int) Math.ceil(numCols / 2.0),
-          currRow + (int) Math.ceil(numRows / 2.0), currCol);
-
-      // Bottom right quadrant
-      fractalBoard(numRows / 2, numCols / 2, currRow + (int) Math.ceil(numRows / 2.0),
-          currCol + (int) Math.ceil(numCols / 2.0));
-    }
-    // Sets the powerstation to be the middle of the top row
-    this.board.get(0).get(this.width / GamePiece.CELL_LENGTH / 2).powerStation = true;
-    this.powerCol = this.width / GamePiece.CELL_LENGTH / 2;
-    this.powerRow = 0;
-  }
-
   // Handles all clicking when clicking within the game board
   public void onMouseClicked(Posn mousePos, String button) {
 
@@ -662,16 +293,17 @@ class LightEmAll extends World {
     int resetButtonWidth = extraSpace / 2;
 
     if (mousePos.y >= extraSpace) {
-      int posX = mousePos.x / GamePiece.CELL_LENGTH;
-      int posY = (mousePos.y - extraSpace) / GamePiece.CELL_LENGTH;
-
-      GamePiece gp = this.board.get(posY).get(posX);
+      // The click is on the piece the camera shows there, if any
+      int posX = this.camera.colAt(mousePos.x);
+      int posY = this.camera.rowAt(mousePos.y - extraSpace);
 
-      if (button.equals("LeftButton")
-          && (posY <= this.boardHeight && 0 <= posY && posX <= this.width && 0 <= posX)) {
-        gp.rotate();
+      if (posX != -1 && posY != -1) {
+        if (button.equals("LeftButton")) {
+          this.engine.rotate(this.engine.model.index(posY, posX));
+        }
+        this.score++;
+        this.pacer.invalidate();
       }
-      this.score++;
     }
     // Reset button:
     if (button.equals("LeftButton") && mousePos.y >= extraSpace / 2 - (resetButtonHeight / 2)
@@ -680,80 +312,72 @@ class LightEmAll extends World {
         && mousePos.x <= this.width - buttonIndentSpace) {
       this.score = 0;
       currSec = (int) (System.currentTimeMillis() / 1000);
-
-      if (this.boardType == 0) {
-        this.board = this.makeBoard();
-      }
-      else if (this.boardType == 1) {
-        this.board = this.manualBoard();
-        this.fractalBoard(this.height / GamePiece.CELL_LENGTH, this.width / GamePiece.CELL_LENGTH,
-            0, 0);
-        this.board.get(0).get(this.width / GamePiece.CELL_LENGTH / 2).powerStation = true;
-        this.powerCol = this.width / GamePiece.CELL_LENGTH / 2;
-        this.powerRow = 0;
-        this.nodes = new ArrayList<GamePiece>();
-        this.getNodes();
-      }
-      else if (this.boardType == 2) {
-        this.rotatePieces();
-        this.board.get(this.powerRow).get(this.powerCol).powerStation = false;
-        this.powerCol = 0;
-        this.powerRow = 0;
-        this.board.get(this.powerRow).get(this.powerCol).powerStation = true;
-      }
+      this.solvedSec = -1;
+      this.engine.reset();
+      this.attach();
+      this.pacer.invalidate();
     }
   }
 
-  // Handles all keys clicked (to move the powerstation)
+  // Handles all keys clicked (to move the powerstation, or the camera)
   public void onKeyEvent(String key) {
-    if (key.equals("left")) {
-      if ((this.powerCol - 1 > -1)
-          && twoPiecesConnected(this.board.get(this.powerRow).get(this.powerCol),
-              this.board.get(this.powerRow).get(this.powerCol - 1))) {
-        this.board.get(this.powerRow).get(this.powerCol).powerStation = false;
-        this.board.get(this.powerRow).get(this.powerCol - 1).powerStation = true;
-        this.powerCol--;
-        this.score++;
-      }
+    if (this.moveCamera(key)) {
+      return;
     }
+    int dir = 0;
 
+    if (key.equals("left")) {
+      dir = BoardModel.LEFT;
+    }
     else if (key.equals("right")) {
-      if ((this.powerCol + 1 < this.width / GamePiece.CELL_LENGTH)
-          && twoPiecesConnected(this.board.get(this.powerRow).get(this.powerCol),
-              this.board.get(this.powerRow).get(this.powerCol + 1))) {
-        this.board.get(this.powerRow).get(this.powerCol).powerStation = false;
-        this.board.get(this.powerRow).get(this.powerCol + 1).powerStation = true;
-        this.powerCol++;
-        this.score++;
-      }
+      dir = BoardModel.RIGHT;
     }
-
     else if (key.equals("up")) {
-      if ((this.powerRow - 1 >= 0)
-          && twoPiecesConnected(this.board.get(this.powerRow).get(this.powerCol),
-              this.board.get(this.powerRow - 1).get(this.powerCol))) {
-        this.board.get(this.powerRow).get(this.powerCol).powerStation = false;
-        this.board.get(this.powerRow - 1).get(this.powerCol).powerStation = true;
-        this.powerRow--;
-        this.score++;
-      }
+      dir = BoardModel.TOP;
     }
-
     else if (key.equals("down")) {
-      if ((this.powerRow + 1 < (this.height / GamePiece.CELL_LENGTH))
-          && twoPiecesConnected(this.board.get(this.powerRow).get(this.powerCol),
-              this.board.get(this.powerRow + 1).get(this.powerCol))) {
-        this.board.get(this.powerRow).get(this.powerCol).powerStation = false;
-        this.board.get(this.powerRow + 1).get(this.powerCol).powerStation = true;
-        this.powerRow++;
-        this.score++;
-      }
+      dir = BoardModel.BOTTOM;
+    }
+
+    // The power station only moves along a wire
+    if (dir != 0 && this.engine.movePowerStation(dir)) {
+      this.score++;
+      this.updatePower();
+      this.pacer.invalidate();
+    }
+  }
+
+  // EFFECT: Pans the camera with w, a, s and d, and zooms it in and out with
+  // + (or =) and -
+  // Returns whether the key was one of those
+  boolean moveCamera(String key) {
+    if (key.equals("w")) {
+      this.camera.pan(0, -this.camera.viewHeight / 4);
+    }
+    else if (key.equals("a")) {
+      this.camera.pan(-this.camera.viewWidth / 4, 0);
+    }
+    else if (key.equals("s")) {
+      this.camera.pan(0, this.camera.viewHeight / 4);
+    }
+    else if (key.equals("d")) {
+      this.camera.pan(this.camera.viewWidth / 4, 0);
     }
+    else if (key.equals("+") || key.equals("=")) {
+      this.camera.zoom(true);
+    }
+    else if (key.equals("-")) {
+      this.camera.zoom(false);
+    }
+    else {
+      return false;
+    }
+    return true;
   }
 
   // Determines if the game is won, else keep going
   public WorldEnd worldEnds() {
-    if (allConnected()) {
+    if (this.allConnected()) {
       return new WorldEnd(true, this.finalScene());
     }
     else {
@@ -761,14 +385,17 @@ class LightEmAll extends World {
     }
   }
 
+  // EFFECT: Stops the clock the moment the last piece powers up, rather than
+  // whenever the next tick gets around to noticing
+  public void onSolved(GameEngine engine) {
+    this.solvedSec = (int) (System.currentTimeMillis() / 1000);
+  }
+
   // Determines if all GamePieces are powered up and connected to the powerstation
+  // (as settled for the board's current version)
   boolean allConnected() {
-    for (GamePiece gp : this.nodes) {
-      if (!gp.isPowered) {
-        return false;
-      }
-    }
-    return true;
+    this.settle();
+    return this.solved;
   }
 
   // The end scene that congratulates the user if game is over (ie. won)
@@ -781,260 +408,13 @@ class LightEmAll extends World {
     WorldImage finalImage = new AboveImage(win, score, time);
 
     ws.placeImageXY(finalImage, this.width / 2, this.boardHeight / 2);
+    // The board's scene now has the message on it, so it cannot be reused
+    this.scene = null;
+    this.pacer.invalidate();
     return ws;
   }
 }
 
-// A function object comparator that helps sort the Edges by weight
-class SortByWeight implements Comparator<Edge> {
-
-  // Compares two given edges and returns -1 if the first is
-  // smaller, 1 if the first is greater, and 0 if they are equal.
-  public int compare(Edge edge1, Edge edge2) {
-    if (edge1.weight < edge2.weight) {
-      return -1;
-    }
-    else if (edge1.weight > edge2.weight) {
-      return 1;
-    }
-    else {
-      return 0;
-    }
-  }
-}
-
-// Represents one of the GamePieces
-class GamePiece {
-  static final int CELL_LENGTH = 40;
-
-  int row;
-  int col;
-  boolean left;
-  boolean right;
-  boolean top;
-  boolean bottom;
-  boolean powerStation;
-  boolean isPowered;
-  int distToPS;
-  ArrayList<GamePiece> neighbors;
-
-  // Constructor where the GamePiece doesn't know its neighbors.
-  GamePiece(int row, int col, boolean left, boolean right, boolean top, boolean bottom,
-      boolean powerStation) {
-    this.row = row;
-    this.col = col;
-    this.left = left;
-    this.right = right;
-    this.top = top;
-    this.bottom = bottom;
-    this.powerStation = powerStation;
-    this.isPowered = false;
-    this.distToPS = 0;
-    this.neighbors = new ArrayList<GamePiece>();
-  }
-
-  // Constructor where the GamePiece knows its neighbors.
-  GamePiece(int row, int col, boolean left, boolean right, boolean top, boolean bottom,
-      boolean powerStation, ArrayList<GamePiece> neighbors) {
-    this.row = row;
-    this.col = col;
-    this.left = left;
-    this.right = right;
-    this.top = top;
-    this.bottom = bottom;
-    this.powerStation = powerStation;
-    this.isPowered = false;
-    this.distToPS = 0;
-    this.neighbors = new ArrayList<GamePiece>();
-  }
-
-  // Determines if the given piece is the same as this one
-  boolean samePiece(GamePiece given) {
-    return (this.row == given.row && this.col == given.col);
-  }
-
-  // Assigns neighbors to this GamePiece depending on its available neighbors
-  void assignNeighbors(ArrayList<ArrayList<GamePiece>> board) {
-    // If top left piece:
-    if (this.row == 0 && this.col == 0) {
-      this.neighbors.add(board.get(this.row).get(this.col + 1));
-      this.neighbors.add(board.get(this.row + 1).get(this.col));
-    }
-    // If bottom left piece:
-    else if (this.row == (board.size() - 1) && this.col == 0) {
-      this.neighbors.add(board.get(this.row - 1).get(this.col));
-      this.neighbors.add(board.get(this.row).get(this.col + 1));
-    }
-    // If top right piece:
-    else if (this.row == 0 && this.col == (board.get(0).size() - 1)) {
-      this.neighbors.add(board.get(this.row).get(this.col - 1));
-      this.neighbors.add(board.get(this.row + 1).get(this.col));
-    }
-    // If bottom right piece:
-    else if (this.row == (board.size() - 1) && this.col == (board.get(0).size() - 1)) {
-      this.neighbors.add(board.get(this.row - 1).get(this.col));
-      this.neighbors.add(board.get(this.row).get(this.col - 1));
-    }
-    // If top row:
-    else if (this.row == 0) {
-      this.neighbors.add(board.get(this.row).get(this.col - 1));
-      this.neighbors.add(board.get(this.row).get(this.col + 1));
-      this.neighbors.add(board.get(this.row + 1).get(this.col));
-    }
-    // If bottom row:
-    else if (this.row == (board.size() - 1)) {
-      this.neighbors.add(board.get(this.row).get(this.col - 1));
-      this.neighbors.add(board.get(this.row).get(this.col + 1));
-      this.neighbors.add(board.get(this.row - 1).get(this.col));
-    }
-    // If leftmost col:
-    else if (this.col == 0) {
-      this.neighbors.add(board.get(this.row - 1).get(this.col));
-      this.neighbors.add(board.get(this.row + 1).get(this.col));
-      this.neighbors.add(board.get(this.row).get(this.col + 1));
-    }
-    // If rightmost col:
-    else if (this.col == (board.get(0).size() - 1)) {
-      this.neighbors.add(board.get(this.row - 1).get(this.col));
-      this.neighbors.add(board.get(this.row + 1).get(this.col));
-      this.neighbors.add(board.get(this.row).get(this.col - 1));
-    }
-    else {
-      // adds the piece to the LEFT
-      this.neighbors.add(board.get(this.row).get(this.col - 1));
-      // adds the piece to the RIGHT
-      this.neighbors.add(board.get(this.row).get(this.col + 1));
-      // adds the piece ABOVE
-      this.neighbors.add(board.get(this.row - 1).get(this.col));
-      // adds the piece BELOW
-      this.neighbors.add(board.get(this.row + 1).get(this.col));
-    }
-  }
-
-  // Draws each individual GamePiece
-  WorldImage drawPiece(int radius) {
-    WorldImage outline = new RectangleImage(CELL_LENGTH, CELL_LENGTH, OutlineMode.OUTLINE,
-        Color.BLACK);
-    WorldImage result = new OverlayImage(
-        new RectangleImage(CELL_LENGTH, CELL_LENGTH, OutlineMode.SOLID, Color.DARK_GRAY),
-        new EmptyImage());
-
-    if (this.isPowered) {
-      LineImage vertLine = new LineImage(new Posn(0, CELL_LENGTH / 2),
-          new Color(255, 255 - (this.distToPS * 255 / radius), 0));
-      LineImage horLine = new LineImage(new Posn(CELL_LENGTH / 2, 0),
-          new Color(255, 255 - (this.distToPS * 255 / radius), 0));
-
-      // Connected to the left
-      if (this.left) {
-        result = new OverlayOffsetAlign(AlignModeX.LEFT, AlignModeY.PINHOLE, horLine, 0, 0, result);
-      }
-      if (this.right) {
-        result = new OverlayOffsetAlign(AlignModeX.RIGHT, AlignModeY.PINHOLE, horLine, 0, 0,
-            result);
-      }
-      if (this.top) {
-        result = new OverlayOffsetAlign(AlignModeX.PINHOLE, AlignModeY.TOP, vertLine, 0, 0, result);
-      }
-      if (this.bottom) {
-        result = new OverlayOffsetAlign(AlignModeX.PINHOLE, AlignModeY.BOTTOM, vertLine, 0, 0,
-            result);
-      }
-      if (this.powerStation) {
-        WorldImage star = new StarImage(15, OutlineMode.SOLID, Color.CYAN);
-        result = new OverlayImage(star, result);
-      }
-    }
-    else {
-      LineImage vertLineNP = new LineImage(new Posn(0, CELL_LENGTH / 2), Color.GRAY);
-      LineImage horLineNP = new LineImage(new Posn(CELL_LENGTH / 2, 0), Color.GRAY);
-
-      // Connected to the left
-      if (this.left) {
-        result = new OverlayOffsetAlign(AlignModeX.LEFT, AlignModeY.PINHOLE, horLineNP, 0, 0,
-            result);
-      }
-      if (this.right) {
-        result = new OverlayOffsetAlign(AlignModeX.RIGHT, AlignModeY.PINHOLE, horLineNP, 0, 0,
-            result);
-      }
-      if (this.top) {
-        result = new OverlayOffsetAlign(AlignModeX.PINHOLE, AlignModeY.TOP, vertLineNP, 0, 0,
-            result);
-      }
-      if (this.bottom) {
-        result = new OverlayOffsetAlign(AlignModeX.PINHOLE, AlignModeY.BOTTOM, vertLineNP, 0, 0,
-            result);
-      }
-      if (this.powerStation) {
-        WorldImage star = new StarImage(15, OutlineMode.SOLID, Color.CYAN);
-        result = new OverlayImage(star, result);
-      }
-    }
-
-    return new OverlayImage(outline, result);
-  }
-
-  // When clicked, the GamePiece is rotated clockwise (90º)
-  void rotate() {
-    boolean prevLeft = this.left;
-    boolean prevTop = this.top;
-    boolean prevBot = this.bottom;
-    boolean prevRight = this.right;
-    this.top = prevLeft;
-    this.right = prevTop;
-    this.bottom = prevRight;
-    this.left = prevBot;
-  }
-
-  // Returns a String representation of each GamePiece's location
-  public String toString() {
-    return "(" + new Integer(this.col + 1).toString() + ", " + new Integer(this.row + 1).toString()
-        + ")";
-  }
-}
-
-// Represents a wire; used for Kruskal's algorithm
-class Edge {
-  private static final Random RANDOBJ = new Random(1);
-
-  GamePiece fromNode;
-  GamePiece toNode;
-  int weight;
-
-  Edge(GamePiece fromNode, GamePiece toNode) {
-    this.fromNode = fromNode;
-    this.toNode = toNode;
-    // Can have a weight of any number [0, 99]
-    this.weight = Edge.RANDOBJ.nextInt(100);
-  }
-
-  // EFFECT: Turns on certain connects to connect an actual edge
-  // Connects the GamePieces that are part of an edge
-  void connectNodes() {
-    if (this.fromNode.col == this.toNode.col) {
-      if (this.fromNode.row > this.toNode.row) {
-        this.fromNode.top = true;
-        this.toNode.bottom = true;
-      }
-      else {
-        this.fromNode.bottom = true;
-        this.toNode.top = true;
-      }
-    }
-    else {
-      if (this.fromNode.col > this.toNode.col) {
-        this.fromNode.left = true;
-        this.toNode.right = true;
-      }
-      else {
-        this.fromNode.right = true;
-        this.toNode.left = true;
-      }
-    }
-  }
-}
-
 // All the examples and tests.
 class ExamplesGame {
   LightEmAll test;
@@ -1046,6 +426,7 @@ class ExamplesGame {
   LightEmAll fivex5;
   LightEmAll fivex5Power;
   LightEmAll kruskalsBoard;
+  KruskalGenerator kruskals;
 
   void initData() {
     // To use with big-bang
@@ -1065,13 +446,121 @@ class ExamplesGame {
     fivex5Power = new LightEmAll(5, 5, 1);
 
     // To test kruskal's:
-    kruskalsBoard = new LightEmAll(8, 8, 2);
+    kruskals = new KruskalGenerator(false);
+    kruskalsBoard = new LightEmAll(8, 8, kruskals);
+  }
+
+  // Determines if the given board has the given pieces, wired the same way
+  boolean sameBoard(BoardModel model, ArrayList<ArrayList<GamePiece>> pieces) {
+    if (model.rows != pieces.size()) {
+      return false;
+    }
+    for (int i = 0; i < model.rows; i++) {
+      if (model.cols != pieces.get(i).size()) {
+        return false;
+      }
+      for (int j = 0; j < model.cols; j++) {
+        if (!new GamePiece(model, i, j).sameWiring(pieces.get(i).get(j))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  // EFFECT: Wires the given board using a subdivision algorithm for fractal-like
+  // wiring, one region at a time by recursion; FractalGenerator must wire the
+  // same board
+  void fractalBoard(BoardModel model, int numRows, int numCols, int currRow, int currCol) {
+    int startRow = currRow;
+    int startCol = currCol;
+
+    if (numRows == 1 || numCols == 1) {
+      // At the base case of one row or one column, irrespective
+      // of the other dimension, the program should stop. No U should be drawn.
+      // This is done because we shouldn't do anything if it is just one row/col
+    }
+
+    // Initially draw a U-shaped wire formation around the outside of the given grid
+
+    else {
+      // Top left of U
+      model.addWire(startRow, startCol, BoardModel.BOTTOM);
+      // Bottom left
+      model.addWire(startRow + numRows - 1, startCol, BoardModel.RIGHT);
+      model.addWire(startRow + numRows - 1, startCol, BoardModel.TOP);
+      // Bottom right
+      model.addWire(startRow + numRows - 1, startCol + numCols - 1, BoardModel.LEFT);
+      model.addWire(startRow + numRows - 1, startCol + numCols - 1, BoardModel.TOP);
+      // Top right
+      model.addWire(startRow, startCol + numCols - 1, BoardModel.BOTTOM);
+      // Sides of U
+      for (int i = startRow + 1; i < startRow + numRows - 1; i++) {
+        model.addWire(i, startCol, BoardModel.TOP);
+        model.addWire(i, startCol, BoardModel.BOTTOM);
+        model.addWire(i, startCol + numCols - 1, BoardModel.TOP);
+        model.addWire(i, startCol + numCols - 1, BoardModel.BOTTOM);
+      }
+      // Bottom row
+      for (int i = startCol + 1; i < startCol + numCols - 1; i++) {
+        model.addWire(startRow + numRows - 1, i, BoardModel.LEFT);
+        model.addWire(startRow + numRows - 1, i, BoardModel.RIGHT);
+      }
+    }
+
+    if (numRows == 1 || numCols == 1 || numCols == 2) {
+      // We don't do anything if it is just one row/col or two columns
+    }
+    // When there is only one row, all pieces should have the top field be true.
+    else if (numRows == 1 && numCols > 2) {
+      this.fractalBoard(model, 1, (int) Math.ceil(numCols / 2), currRow, currCol);
+      this.fractalBoard(model, 1, numCols / 2, currRow, (int) Math.ceil(currCol / 2));
+    }
+    // Other base cases:
+    else if (numRows == 1 && numCols == 2) {
+      model.addWire(startRow, startCol, BoardModel.RIGHT);
+      model.addWire(startRow, startCol + 1, BoardModel.LEFT);
+
+    }
+    else if (numRows == 2 && numCols == 1) {
+      model.addWire(startRow, startCol, BoardModel.BOTTOM);
+      model.addWire(startRow + 1, startCol, BoardModel.TOP);
+    }
+    else if (numRows == 2) {
+      for (int i = startCol + 1; i < startCol + numCols - 1; i++) {
+        model.addWire(startRow, i, BoardModel.BOTTOM);
+        model.addWire(startRow + 1, i, BoardModel.TOP);
+      }
+    }
+
+    else if (numRows >= 3 || numCols >= 3) {
+      // Top left quadrant
+      this.fractalBoard(model, (int) Math.ceil(numRows / 2.0), (int) Math.ceil(numCols / 2.0),
+          currRow, currCol);
+
+      // Top right quadrant
+      this.fractalBoard(model, (int) Math.ceil(numRows / 2.0), numCols / 2, currRow,
+          currCol + (int) Math.ceil(numCols / 2.0));
+
+      // Bottom left quadrant
+      this.fractalBoard(model, numRows / 2, (int) Math.ceil(numCols / 2.0),
+          currRow + (int) Math.ceil(numRows / 2.0), currCol);
+
+      // Bottom right quadrant
+      this.fractalBoard(model, numRows / 2, numCols / 2,
+          currRow + (int) Math.ceil(numRows / 2.0), currCol + (int) Math.ceil(numCols / 2.0));
+    }
+    // Sets the powerstation to be the middle of the top row
+    model.setPowerStation(model.index(0, model.cols / 2));
   }
 
   // Runs the program with a predetermined, easy-to-solve pattern.
   void testMain(Tester t) {
     initData();
-    this.kruskalsBoard.bigBang(this.kruskalsBoard.width, this.kruskalsBoard.boardHeight, .003);
+    // Ticks as seldom as the clock allows, or less often if frames are costly
+    this.kruskalsBoard.makeScene();
+    this.kruskalsBoard.bigBang(this.kruskalsBoard.width, this.kruskalsBoard.boardHeight,
+        this.kruskalsBoard.pacer.tickRate());
   }
 
   // Testing the makeScene() method
@@ -1080,8 +569,7 @@ class ExamplesGame {
 
     int extraSpace3 = this.threex3Power.boardHeight - this.threex3Power.height;
     int indentSpace3 = extraSpace3 / 10;
-    this.threex3Power.radius = this.threex3Power.calcRadius();
-    this.threex3Power.getPowered();
+    this.threex3Power.updatePower();
 
     this.threex3Power.currSec = (int) (System.currentTimeMillis() / 1000);
 
@@ -1109,8 +597,9 @@ class ExamplesGame {
 
     WorldScene sceneThree = new WorldScene(this.threex3Power.width, this.threex3Power.height);
 
-    for (ArrayList<GamePiece> row : this.threex3Power.board) {
-      for (GamePiece cell : row) {
+    for (int row = 0; row < this.threex3Power.engine.model.rows; row++) {
+      for (int col = 0; col < this.threex3Power.engine.model.cols; col++) {
+        GamePiece cell = this.threex3Power.piece(row, col);
         sceneThree.placeImageXY(cell.drawPiece(this.threex3Power.radius),
             cell.col * GamePiece.CELL_LENGTH + GamePiece.CELL_LENGTH / 2,
             (cell.row * GamePiece.CELL_LENGTH + GamePiece.CELL_LENGTH / 2) + extraSpace3);
@@ -1120,8 +609,7 @@ class ExamplesGame {
 
     int extraSpace4 = this.fourx4Power.boardHeight - this.fourx4Power.height;
     int indentSpace4 = extraSpace4 / 10;
-    this.fourx4Power.radius = this.fourx4Power.calcRadius();
-    this.fourx4Power.getPowered();
+    this.fourx4Power.updatePower();
 
     this.fourx4Power.currSec = (int) (System.currentTimeMillis() / 1000);
 
@@ -1149,8 +637,9 @@ class ExamplesGame {
 
     WorldScene sceneFour = new WorldScene(this.fourx4Power.width, this.fourx4Power.height);
 
-    for (ArrayList<GamePiece> row : this.fourx4Power.board) {
-      for (GamePiece cell : row) {
+    for (int row = 0; row < this.fourx4Power.engine.model.rows; row++) {
+      for (int col = 0; col < this.fourx4Power.engine.model.cols; col++) {
+        GamePiece cell = this.fourx4Power.piece(row, col);
         sceneFour.placeImageXY(cell.drawPiece(this.fourx4Power.radius),
             cell.col * GamePiece.CELL_LENGTH + GamePiece.CELL_LENGTH / 2,
             (cell.row * GamePiece.CELL_LENGTH + GamePiece.CELL_LENGTH / 2) + extraSpace4);
@@ -1163,6 +652,266 @@ class ExamplesGame {
     // t.checkExpect(this.fourx4Power.makeScene(), sceneFour);
   }
 
+  // Testing updatePower()
+  void testUpdatePower(Tester t) {
+    initData();
+    int generation = this.fourx4Power.engine.search.generation;
+
+    // Nothing changed since the constructor, so frames do no searching
+    this.fourx4Power.makeScene();
+    this.fourx4Power.makeScene();
+    t.checkExpect(this.fourx4Power.engine.search.generation, generation);
+
+    // A click updates power incrementally. Turning the power station cuts off
+    // an end of the longest path, so then the network is measured again: the
+    // radius, and the distances from both ends of the path.
+    this.fourx4Power.onMouseClicked(new Posn(2 * GamePiece.CELL_LENGTH + 5,
+        this.fourx4Power.boardHeight - this.fourx4Power.height + 5), "LeftButton");
+    this.fourx4Power.makeScene();
+    t.checkExpect(this.fourx4Power.engine.search.generation, generation + 3);
+    t.checkExpect(this.fourx4Power.piece(1, 2).isPowered(), false);
+    this.fourx4Power.makeScene();
+    t.checkExpect(this.fourx4Power.engine.search.generation, generation + 3);
+
+    // Moving the power station along a tree re-roots it without searching
+    generation = this.twox2Power.engine.search.generation;
+    this.twox2Power.onKeyEvent("down");
+    this.twox2Power.updatePower();
+    t.checkExpect(this.twox2Power.engine.search.generation, generation);
+    t.checkExpect(this.twox2Power.allConnected(), true);
+  }
+
+  // Testing that PowerGrid's incremental updates agree with full ones
+  void testPowerGridRotated(Tester t) {
+    initData();
+    Random rand = new Random(7);
+    BoardModel model = this.kruskalsBoard.engine.model;
+    PowerGrid power = this.kruskalsBoard.engine.power;
+    BoardModel copy = new BoardModel(model.rows, model.cols);
+    PowerGrid fresh = new PowerGrid(copy, new BoardSearch(copy));
+
+    boolean agrees = true;
+    for (int i = 0; i < 300; i++) {
+      int cell = rand.nextInt(model.size());
+      int oldWiring = model.wiring(cell);
+      model.rotate(cell);
+      power.rotated(cell, oldWiring);
+      t.checkExpect(power.isCurrent(), true);
+
+      for (int j = 0; j < model.size(); j++) {
+        copy.setWiring(j, model.wiring(j));
+      }
+      copy.setPowerStation(model.powerIndex);
+      fresh.recompute();
+      agrees = agrees && Arrays.equals(model.dist, copy.dist)
+          && Arrays.equals(model.powered, copy.powered) && power.radius == fresh.radius;
+    }
+    t.checkExpect(agrees, true);
+
+    // Turning the power station away from its wire and back again
+    GamePiece station = this.fourx4Power.piece(0, 2);
+    for (int turn = 0; turn < 4; turn++) {
+      int oldWiring = station.wiring();
+      station.rotate();
+      this.fourx4Power.engine.power.rotated(station.index, oldWiring);
+      if (turn < 3) {
+        t.checkExpect(this.fourx4Power.piece(1, 2).distToPS(), -1);
+        t.checkExpect(this.fourx4Power.piece(3, 2).isPowered(), false);
+      }
+    }
+    t.checkExpect(this.fourx4Power.piece(1, 2).distToPS(), 1);
+    t.checkExpect(this.fourx4Power.piece(3, 2).distToPS(), 5);
+    t.checkExpect(this.fourx4Power.piece(3, 2).isPowered(), true);
+    t.checkExpect(this.fourx4Power.engine.power.radius, 6);
+
+    // Turning random cells one step at a time gives what a fresh measure()
+    // gives after every step. On small boards a step often hangs a cell from
+    // another cell at the same distance, or closes a loop, so there are many
+    // of them, and half of them start solved, on a whole tree.
+    boolean stepsAgree = true;
+    boolean endsAgree = true;
+    for (int seed = 0; seed < 3000; seed++) {
+      Random steps = new Random(seed);
+      int rows = 1 + steps.nextInt(8);
+      int cols = 1 + steps.nextInt(8);
+      GameEngine engine = new GameEngine(rows, cols, new PrimGenerator(new Random(seed)));
+      BoardModel board = new BoardModel(rows, cols);
+      PowerGrid measured = new PowerGrid(board, new BoardSearch(board));
+      BoardSearch check = new BoardSearch(board);
+      if (steps.nextBoolean()) {
+        new PrimGenerator(new Random(seed)).growTree(board);
+        for (int j = 0; j < board.size(); j++) {
+          engine.model.setWiring(j, board.wiring(j));
+        }
+        engine.update();
+      }
+      for (int i = 0; i < 200 && stepsAgree && endsAgree; i++) {
+        engine.rotate(steps.nextInt(engine.model.size()));
+        for (int j = 0; j < board.size(); j++) {
+          board.setWiring(j, engine.model.wiring(j));
+        }
+        board.setPowerStation(engine.model.powerIndex);
+        measured.spread(measured.measure());
+        stepsAgree = Arrays.equals(engine.model.dist, board.dist)
+            && Arrays.equals(engine.model.powered, board.powered)
+            && engine.model.poweredCount == board.poweredCount
+            && engine.power.radius == measured.radius;
+        // and the distances from both ends are kept right
+        PowerGrid kept = engine.power;
+        if (kept.acyclic && kept.measuredVersion == engine.model.version) {
+          for (int end = 0; end < 2; end++) {
+            check.search(end == 0 ? kept.endA : kept.endB);
+            for (int j = 0; j < board.size(); j++) {
+              endsAgree = endsAgree && (board.dist[j] == -1
+                  || check.depthOf(j) == (end == 0 ? kept.distA[j] : kept.distB[j]));
+            }
+          }
+        }
+      }
+    }
+    t.checkExpect(stepsAgree, true);
+    t.checkExpect(endsAgree, true);
+
+    // On a tree, rotations that keep the longest path need no search at all.
+    // Starting from a solved board, pieces are turned all the way around, so
+    // cells are cut off the tree and hung back on.
+    GameEngine prim = new GameEngine(20, 20, new PrimGenerator(new Random(5)));
+    BoardModel primCopy = new BoardModel(20, 20);
+    new PrimGenerator(new Random(5)).growTree(primCopy);
+    for (int j = 0; j < prim.model.size(); j++) {
+      prim.model.setWiring(j, primCopy.wiring(j));
+    }
+    prim.update();
+    int local = 0;
+    int full = 0;
+    int turned = 0;
+    for (int i = 0; i < 400; i++) {
+      if (i % 4 == 0) {
+        turned = rand.nextInt(prim.model.size());
+      }
+      int generation = prim.search.generation;
+      prim.rotate(turned);
+      if (prim.search.generation != generation) {
+        full++;
+      }
+      else if (prim.power.affectedCount + prim.power.joinedCount > 0) {
+        local++;
+      }
+    }
+    t.checkExpect(Arrays.equals(prim.model.wires, primCopy.wires), true);
+    t.checkExpect(local > 2 * full, true);
+  }
+
+  // Testing that moving the power station re-roots distances like a full update
+  void testPowerGridMoved(Tester t) {
+    initData();
+    Random rand = new Random(11);
+    String[] keys = { "left", "right", "up", "down" };
+    BoardModel model = this.kruskalsBoard.engine.model;
+    BoardModel copy = new BoardModel(model.rows, model.cols);
+    PowerGrid fresh = new PowerGrid(copy, new BoardSearch(copy));
+    // Solves the board so that the power station can roam the whole tree
+    for (Edge e : this.kruskals.mst) {
+      model.setWiring(e.from, 0);
+      model.setWiring(e.to, 0);
+    }
+    this.kruskals.connect(model);
+    this.kruskalsBoard.updatePower();
+    int generation = this.kruskalsBoard.engine.search.generation;
+
+    boolean agrees = true;
+    int moves = 0;
+    for (int i = 0; i < 400; i++) {
+      int before = model.powerIndex;
+      this.kruskalsBoard.onKeyEvent(keys[rand.nextInt(4)]);
+      if (model.powerIndex != before) {
+        moves++;
+      }
+      t.checkExpect(this.kruskalsBoard.engine.power.isCurrent(), true);
+
+      for (int j = 0; j < model.size(); j++) {
+        copy.setWiring(j, model.wiring(j));
+      }
+      copy.setPowerStation(model.powerIndex);
+      fresh.recompute();
+      agrees = agrees && Arrays.equals(model.dist, copy.dist)
+          && Arrays.equals(model.powered, copy.powered)
+          && this.kruskalsBoard.engine.power.radius == fresh.radius;
+    }
+    t.checkExpect(agrees, true);
+    t.checkExpect(moves > 50, true);
+    t.checkExpect(this.kruskalsBoard.engine.power.isTree, true);
+    // Re-rooting a tree never searches: only labelling it once did, without BoardSearch
+    t.checkExpect(this.kruskalsBoard.engine.search.generation, generation);
+
+    // On the manual board the power station's row is a tree too
+    this.fivex5.onKeyEvent("left");
+    t.checkExpect(this.fivex5.engine.power.isTree, true);
+    t.checkExpect(this.fivex5.piece(2, 2).distToPS(), 1);
+    t.checkExpect(this.fivex5.piece(2, 0).distToPS(), 1);
+    t.checkExpect(this.fivex5.piece(2, 4).distToPS(), 3);
+
+    // A loop has no single far side, so moves around it fall back to full updates
+    BoardModel loop = new BoardModel(2, 2);
+    loop.setWiring(0, BoardModel.RIGHT | BoardModel.BOTTOM);
+    loop.setWiring(1, BoardModel.LEFT | BoardModel.BOTTOM);
+    loop.setWiring(2, BoardModel.TOP | BoardModel.RIGHT);
+    loop.setWiring(3, BoardModel.TOP | BoardModel.LEFT);
+    loop.setPowerStation(0);
+    PowerGrid loopPower = new PowerGrid(loop, new BoardSearch(loop));
+    loopPower.recompute();
+    t.checkExpect(loop.dist[3], 2);
+    loop.setPowerStation(1);
+    loopPower.moved(0);
+    t.checkExpect(loopPower.isTree, false);
+    t.checkExpect(loopPower.isCurrent(), true);
+    t.checkExpect(loop.dist[0], 1);
+    t.checkExpect(loop.dist[2], 2);
+    t.checkExpect(loop.dist[3], 1);
+  }
+
+  // Testing the GameEngine on its own, without a World
+  void testGameEngine(Tester t) {
+    initData();
+    GameEngine engine = new GameEngine(2, 2, GameEngine.FRACTAL);
+    t.checkExpect(engine.model.powerIndex, 1);
+    t.checkExpect(engine.isSolved(), false);
+    t.checkExpect(engine.movePowerStation(BoardModel.RIGHT), false);
+    t.checkExpect(engine.movePowerStation(BoardModel.BOTTOM), true);
+    t.checkExpect(engine.model.powerIndex, 3);
+    t.checkExpect(engine.isSolved(), true);
+
+    // Rotating a piece four times leaves the board as it was
+    engine.rotate(0);
+    t.checkExpect(engine.isSolved(), false);
+    t.checkExpect(engine.model.powered[0], false);
+    engine.rotate(0);
+    engine.rotate(0);
+    engine.rotate(0);
+    t.checkExpect(engine.power.isCurrent(), true);
+    t.checkExpect(engine.isSolved(), true);
+
+    // Resetting a Kruskal board scrambles the same tree again
+    KruskalGenerator kruskals = new KruskalGenerator(false);
+    GameEngine kruskal = new GameEngine(8, 8, kruskals);
+    ArrayList<Edge> mst = kruskals.mst;
+    kruskal.movePowerStation(BoardModel.RIGHT);
+    kruskal.reset();
+    t.checkExpect(kruskals.mst, mst);
+    t.checkExpect(kruskal.model.powerIndex, 0);
+    t.checkExpect(kruskal.power.isCurrent(), true);
+
+    // The reset button gives LightEmAll a fresh board, and its pieces
+    int extraSpace = this.fivex5.boardHeight - this.fivex5.height;
+    this.fivex5.onKeyEvent("left");
+    this.fivex5.onMouseClicked(new Posn(this.fivex5.width - extraSpace / 10 - 1, extraSpace / 2),
+        "LeftButton");
+    t.checkExpect(this.fivex5.powerCol, 2);
+    t.checkExpect(this.fivex5.engine.model.size(), 25);
+    t.checkExpect(this.fivex5.piece(2, 2).isPowerStation(), true);
+    t.checkExpect(this.fivex5.piece(0, 0).model, this.fivex5.engine.model);
+  }
+
   // Testing the method makeBoard()
   void testMakeBoard(Tester t) {
 
@@ -1186,7 +935,9 @@ class ExamplesGame {
     answer.add(row2);
     answer.add(row3);
 
-    t.checkExpect(this.threex3.makeBoard(), answer);
+    this.threex3.engine.manualBoard();
+    new ManualGenerator().makeBoard(this.threex3.engine.model);
+    t.checkExpect(this.sameBoard(this.threex3.engine.model, answer), true);
 
     // Testing a 5x5 board
     ArrayList<ArrayList<GamePiece>> answer2 = new ArrayList<ArrayList<GamePiece>>();
@@ -1227,15 +978,17 @@ class ExamplesGame {
     answer2.add(row45);
     answer2.add(row55);
 
-    t.checkExpect(this.fivex5.makeBoard(), answer2);
+    this.fivex5.engine.manualBoard();
+    new ManualGenerator().makeBoard(this.fivex5.engine.model);
+    t.checkExpect(this.sameBoard(this.fivex5.engine.model, answer2), true);
     // More testing 5x5 creation:
-    t.checkExpect(this.fivex5.board.get(0).get(0).bottom, false);
-    t.checkExpect(this.fivex5.board.get(0).get(0).right && this.fivex5.board.get(0).get(0).left,
+    t.checkExpect(this.fivex5.piece(0, 0).bottom(), false);
+    t.checkExpect(this.fivex5.piece(0, 0).right() && this.fivex5.piece(0, 0).left(),
         true);
-    t.checkExpect(this.fivex5.board.get(0).get(0).powerStation, false);
-    t.checkExpect(this.fivex5.board.get(2).get(2).powerStation, true);
-    t.checkExpect(this.fivex5.board.get(2).get(2).right && this.fivex5.board.get(2).get(2).left
-        && this.fivex5.board.get(2).get(2).top && this.fivex5.board.get(2).get(2).bottom, true);
+    t.checkExpect(this.fivex5.piece(0, 0).isPowerStation(), false);
+    t.checkExpect(this.fivex5.piece(2, 2).isPowerStation(), true);
+    t.checkExpect(this.fivex5.piece(2, 2).right() && this.fivex5.piece(2, 2).left()
+        && this.fivex5.piece(2, 2).top() && this.fivex5.piece(2, 2).bottom(), true);
   }
 
   // Testing the method manualBoad()
@@ -1268,25 +1021,26 @@ class ExamplesGame {
 
     answer.addAll(Arrays.asList(firstRow, secRow, thirdRow));
 
-    t.checkExpect(this.threex3.manualBoard(), answer);
+    this.threex3.engine.manualBoard();
+    t.checkExpect(this.sameBoard(this.threex3.engine.model, answer), true);
   }
 
   // Testing the whether clicking rotates the game pieces correctly.
   void testOnMouseClicked(Tester t) {
     initData();
-    t.checkExpect(this.threex3.board.get(0).get(0).bottom, false);
+    t.checkExpect(this.threex3.piece(0, 0).bottom(), false);
     this.threex3.onMouseClicked(new Posn(10, 10), "RightButton");
-    t.checkExpect(this.threex3.board.get(0).get(0).bottom, false);
+    t.checkExpect(this.threex3.piece(0, 0).bottom(), false);
     this.threex3.onMouseClicked(new Posn(10, 34), "LeftButton");
-    t.checkExpect(this.threex3.board.get(0).get(0).bottom, true);
+    t.checkExpect(this.threex3.piece(0, 0).bottom(), true);
     this.threex3.onMouseClicked(new Posn(10, 34), "LeftButton");
-    t.checkExpect(this.threex3.board.get(0).get(0).bottom, false);
-    t.checkExpect(this.fivex5.board.get(2).get(2).powerStation, true);
-    t.checkExpect(this.fivex5.board.get(2).get(2).right, true);
+    t.checkExpect(this.threex3.piece(0, 0).bottom(), false);
+    t.checkExpect(this.fivex5.piece(2, 2).isPowerStation(), true);
+    t.checkExpect(this.fivex5.piece(2, 2).right(), true);
     this.fivex5.onMouseClicked(new Posn(2 * GamePiece.CELL_LENGTH, 2 * GamePiece.CELL_LENGTH),
         "LeftButton");
-    t.checkExpect(this.fivex5.board.get(2).get(2).right, true);
-    t.checkExpect(this.fivex5.board.get(2).get(2).powerStation, true);
+    t.checkExpect(this.fivex5.piece(2, 2).right(), true);
+    t.checkExpect(this.fivex5.piece(2, 2).isPowerStation(), true);
     this.kruskalsBoard.onMouseClicked(new Posn(294, 34), "LeftButton");
     t.checkExpect(this.kruskalsBoard.score, 0);
   }
@@ -1294,176 +1048,431 @@ class ExamplesGame {
   // Testing whether the pieces are connected
   void testTwoPiecesConnected(Tester t) {
     initData();
-    t.checkExpect(this.threex3.twoPiecesConnected(this.threex3.board.get(0).get(0),
-        this.threex3.board.get(1).get(0)), false);
+    t.checkExpect(this.threex3.twoPiecesConnected(this.threex3.piece(0, 0),
+        this.threex3.piece(1, 0)), false);
     this.threex3.onMouseClicked(new Posn(10, 84), "LeftButton");
-    t.checkExpect(this.threex3.twoPiecesConnected(this.threex3.board.get(0).get(0),
-        this.threex3.board.get(0).get(1)), true);
-    t.checkExpect(this.fourx4.twoPiecesConnected(this.fourx4.board.get(2).get(2),
-        this.fourx4.board.get(2).get(3)), true);
+    t.checkExpect(this.threex3.twoPiecesConnected(this.threex3.piece(0, 0),
+        this.threex3.piece(0, 1)), true);
+    t.checkExpect(this.fourx4.twoPiecesConnected(this.fourx4.piece(2, 2),
+        this.fourx4.piece(2, 3)), true);
     this.fourx4.onMouseClicked(
         new Posn(2 * GamePiece.CELL_LENGTH + 5, 3 * GamePiece.CELL_LENGTH + 5), "LeftButton");
-    t.checkExpect(this.fourx4.twoPiecesConnected(this.fourx4.board.get(2).get(2),
-        this.fourx4.board.get(2).get(3)), true);
-
-    t.checkExpect(this.fivex5Power.twoPiecesConnected(this.fivex5Power.board.get(0).get(2),
-        this.fivex5Power.board.get(0).get(1)), false);
-    t.checkExpect(this.fivex5Power.twoPiecesConnected(this.fivex5Power.board.get(0).get(2),
-        this.fivex5Power.board.get(1).get(2)), true);
-    t.checkExpect(this.fivex5Power.twoPiecesConnected(this.fivex5Power.board.get(0).get(2),
-        this.fivex5Power.board.get(2).get(1)), false);
-
-    t.checkExpect(this.fourx4Power.twoPiecesConnected(this.fourx4Power.board.get(0).get(0),
-        this.fourx4Power.board.get(1).get(0)), true);
-    this.fourx4Power.board.get(1).get(0).rotate();
-    t.checkExpect(this.fourx4Power.twoPiecesConnected(this.fourx4Power.board.get(0).get(0),
-        this.fourx4Power.board.get(1).get(0)), false);
+    t.checkExpect(this.fourx4.twoPiecesConnected(this.fourx4.piece(2, 2),
+        this.fourx4.piece(2, 3)), true);
+
+    t.checkExpect(this.fivex5Power.twoPiecesConnected(this.fivex5Power.piece(0, 2),
+        this.fivex5Power.piece(0, 1)), false);
+    t.checkExpect(this.fivex5Power.twoPiecesConnected(this.fivex5Power.piece(0, 2),
+        this.fivex5Power.piece(1, 2)), true);
+    t.checkExpect(this.fivex5Power.twoPiecesConnected(this.fivex5Power.piece(0, 2),
+        this.fivex5Power.piece(2, 1)), false);
+
+    t.checkExpect(this.fourx4Power.twoPiecesConnected(this.fourx4Power.piece(0, 0),
+        this.fourx4Power.piece(1, 0)), true);
+    this.fourx4Power.piece(1, 0).rotate();
+    t.checkExpect(this.fourx4Power.twoPiecesConnected(this.fourx4Power.piece(0, 0),
+        this.fourx4Power.piece(1, 0)), false);
 
     initData();
-    t.checkExpect(this.fourx4Power.twoPiecesConnected(this.fourx4Power.board.get(1).get(0),
-        this.fourx4Power.board.get(2).get(0)), true);
-    this.fourx4Power.board.get(1).get(0).rotate();
-    this.fourx4Power.board.get(1).get(0).rotate();
-    this.fourx4Power.board.get(1).get(0).rotate();
-    t.checkExpect(this.fourx4Power.twoPiecesConnected(this.fourx4Power.board.get(1).get(0),
-        this.fourx4Power.board.get(2).get(0)), false);
+    t.checkExpect(this.fourx4Power.twoPiecesConnected(this.fourx4Power.piece(1, 0),
+        this.fourx4Power.piece(2, 0)), true);
+    this.fourx4Power.piece(1, 0).rotate();
+    this.fourx4Power.piece(1, 0).rotate();
+    this.fourx4Power.piece(1, 0).rotate();
+    t.checkExpect(this.fourx4Power.twoPiecesConnected(this.fourx4Power.piece(1, 0),
+        this.fourx4Power.piece(2, 0)), false);
   }
 
   // Testing rotation for various game pieces.
   void testRotate(Tester t) {
     initData();
     // top right piece
-    t.checkExpect(this.fivex5.board.get(0).get(0).left && this.fivex5.board.get(0).get(0).right,
+    t.checkExpect(this.fivex5.piece(0, 0).left() && this.fivex5.piece(0, 0).right(),
         true);
-    this.fivex5.board.get(0).get(0).rotate();
-    t.checkExpect(this.fivex5.board.get(0).get(0).left || this.fivex5.board.get(0).get(0).right,
+    this.fivex5.piece(0, 0).rotate();
+    t.checkExpect(this.fivex5.piece(0, 0).left() || this.fivex5.piece(0, 0).right(),
         false);
     // piece with coordinates (2,0)
-    t.checkExpect(this.fivex5.board.get(3).get(0).top || this.fivex5.board.get(3).get(0).bottom,
+    t.checkExpect(this.fivex5.piece(3, 0).top() || this.fivex5.piece(3, 0).bottom(),
         false);
-    this.fivex5.board.get(3).get(0).rotate();
-    t.checkExpect(this.fivex5.board.get(3).get(0).top && this.fivex5.board.get(3).get(0).bottom,
+    this.fivex5.piece(3, 0).rotate();
+    t.checkExpect(this.fivex5.piece(3, 0).top() && this.fivex5.piece(3, 0).bottom(),
         true);
     // star/4-way piece.
-    t.checkExpect(this.fivex5.board.get(2).get(2).bottom && this.fivex5.board.get(2).get(2).top
-        && this.fivex5.board.get(2).get(2).right && this.fivex5.board.get(2).get(2).left, true);
-    this.fivex5.board.get(0).get(0).rotate();
-    t.checkExpect(this.fivex5.board.get(2).get(2).bottom && this.fivex5.board.get(2).get(2).top
-        && this.fivex5.board.get(2).get(2).right && this.fivex5.board.get(2).get(2).left, true);
+    t.checkExpect(this.fivex5.piece(2, 2).bottom() && this.fivex5.piece(2, 2).top()
+        && this.fivex5.piece(2, 2).right() && this.fivex5.piece(2, 2).left(), true);
+    this.fivex5.piece(0, 0).rotate();
+    t.checkExpect(this.fivex5.piece(2, 2).bottom() && this.fivex5.piece(2, 2).top()
+        && this.fivex5.piece(2, 2).right() && this.fivex5.piece(2, 2).left(), true);
   }
 
-  // testing getPowered()
+  // testing the power of the pieces
   void testGetPowered(Tester t) {
     initData();
-    t.checkExpect(this.fourx4Power.board.get(0).get(0).isPowered, false);
-    t.checkExpect(this.fourx4Power.board.get(1).get(0).isPowered, false);
-    t.checkExpect(this.fourx4Power.board.get(1).get(0).isPowered, false);
-    t.checkExpect(this.fourx4Power.board.get(3).get(1).isPowered, true);
-    t.checkExpect(this.fourx4Power.board.get(3).get(2).isPowered, true);
-  }
-
-  // testing piecesConnected()
-  void testPiecesConnected(Tester t) {
+    t.checkExpect(this.fourx4Power.piece(0, 0).isPowered(), false);
+    t.checkExpect(this.fourx4Power.piece(1, 0).isPowered(), false);
+    t.checkExpect(this.fourx4Power.piece(1, 0).isPowered(), false);
+    t.checkExpect(this.fourx4Power.piece(3, 1).isPowered(), true);
+    t.checkExpect(this.fourx4Power.piece(3, 2).isPowered(), true);
+    t.checkExpect(this.fourx4Power.piece(3, 2).distToPS(), 5);
+    t.checkExpect(this.fourx4Power.piece(0, 0).distToPS(), 10);
+
+    // Turning the power station away from its only wire cuts off every other piece
+    this.fourx4Power.piece(0, 2).rotate();
+    this.fourx4Power.updatePower();
+    t.checkExpect(this.fourx4Power.piece(0, 2).isPowered(), true);
+    t.checkExpect(this.fourx4Power.piece(0, 2).distToPS(), 0);
+    t.checkExpect(this.fourx4Power.piece(1, 2).isPowered(), false);
+    t.checkExpect(this.fourx4Power.piece(1, 2).distToPS(), -1);
+    t.checkExpect(this.fourx4Power.piece(3, 2).distToPS(), -1);
+  }
+
+  // Testing the GameEngine's connected()
+  void testConnected(Tester t) {
     initData();
-    // piecesConnected()
-    t.checkExpect(this.fourx4Power.piecesConnected(this.fourx4Power.board.get(0).get(0),
-        this.fourx4Power.board.get(3).get(0)), true);
-    this.fourx4Power.board.get(1).get(0).rotate();
-    this.fourx4Power.board.get(1).get(0).rotate();
-    this.fourx4Power.board.get(1).get(0).rotate();
-    t.checkExpect(this.fourx4Power.piecesConnected(this.fourx4Power.board.get(1).get(0),
-        this.fourx4Power.board.get(3).get(0)), false);
-
+    GameEngine engine = this.fourx4Power.engine;
+    t.checkExpect(engine.connected(engine.model.index(0, 0), engine.model.index(3, 0)), true);
+    t.checkExpect(engine.connected(engine.model.index(1, 2), engine.model.index(3, 0)), true);
+    t.checkExpect(engine.connected(engine.model.index(2, 2), engine.model.index(2, 0)), true);
+    t.checkExpect(engine.connected(engine.model.index(1, 1), engine.model.index(1, 1)), true);
+    this.fourx4Power.piece(1, 0).rotate();
+    this.fourx4Power.piece(1, 0).rotate();
+    this.fourx4Power.piece(1, 0).rotate();
+    t.checkExpect(engine.connected(engine.model.index(1, 0), engine.model.index(3, 0)), false);
+    t.checkExpect(engine.connected(engine.model.index(0, 0), engine.model.index(3, 0)), false);
+  }
+
+  // Testing method piece()
+  void testPiece(Tester t) {
     initData();
-    // piecesConnectedAccumulator()
-    t.checkExpect(this.fourx4Power.piecesConnectedAccumulator(this.fourx4Power.board.get(0).get(0),
-        this.fourx4Power.board.get(3).get(0), new ArrayList<GamePiece>()), true);
-    this.fourx4Power.board.get(1).get(0).rotate();
-    this.fourx4Power.board.get(1).get(0).rotate();
-    this.fourx4Power.board.get(1).get(0).rotate();
-    t.checkExpect(this.fourx4Power.piecesConnectedAccumulator(this.fourx4Power.board.get(0).get(0),
-        this.fourx4Power.board.get(3).get(0), new ArrayList<GamePiece>()), false);
+    GamePiece station = this.fourx4Power.piece(0, 2);
+    t.checkExpect(station.model, this.fourx4Power.engine.model);
+    t.checkExpect(station.index, 2);
+    t.checkExpect(station.isPowerStation(), true);
+    t.checkExpect(this.fourx4Power.piece(3, 1).index, 13);
 
-    initData();
-    // leftConnected()
-    t.checkExpect(this.fourx4Power.leftConnected(this.fourx4Power.board.get(1).get(2),
-        this.fourx4Power.board.get(3).get(0), new ArrayList<GamePiece>()), false);
-    t.checkExpect(this.fourx4Power.leftConnected(this.fourx4Power.board.get(1).get(3),
-        this.fourx4Power.board.get(1).get(2), new ArrayList<GamePiece>()), true);
-
-    // rightConnected()
-    t.checkExpect(this.fourx4Power.rightConnected(this.fourx4Power.board.get(1).get(2),
-        this.fourx4Power.board.get(3).get(0), new ArrayList<GamePiece>()), true);
-    t.checkExpect(this.fourx4Power.leftConnected(this.fourx4Power.board.get(1).get(2),
-        this.fourx4Power.board.get(1).get(1), new ArrayList<GamePiece>()), false);
-
-    // topConnected()
-    t.checkExpect(this.fourx4Power.topConnected(this.fourx4Power.board.get(1).get(2),
-        this.fourx4Power.board.get(0).get(1), new ArrayList<GamePiece>()), true);
-    t.checkExpect(this.fourx4Power.leftConnected(this.fourx4Power.board.get(3).get(0),
-        this.fourx4Power.board.get(3).get(3), new ArrayList<GamePiece>()), false);
-
-    // bottomConnected()
-    t.checkExpect(this.fourx4Power.bottomConnected(this.fourx4Power.board.get(2).get(2),
-        this.fourx4Power.board.get(2).get(0), new ArrayList<GamePiece>()), true);
-    t.checkExpect(this.fourx4Power.bottomConnected(this.fourx4Power.board.get(3).get(2),
-        this.fourx4Power.board.get(3).get(0), new ArrayList<GamePiece>()), false);
-  }
-
-  // Testing method getNodes()
-  void testGetNodes(Tester t) {
-    initData();
-    this.fourx4Power.nodes.clear();
-    t.checkExpect(this.fourx4Power.nodes.size(), 0);
-    this.fourx4Power.getNodes();
-    // There are and should be 16 because this is a 4x4
-    t.checkExpect(this.fourx4Power.nodes.size(), 16);
+    // Views are made when asked for, so they always show the current board
+    this.fourx4Power.engine.reset();
+    t.checkExpect(this.fourx4Power.piece(0, 2).model, this.fourx4Power.engine.model);
+    t.checkExpect(this.fourx4Power.piece(0, 2).samePiece(station), true);
   }
 
-  // Testing initHash()
-  void testInitHash(Tester t) {
+  // Testing the BoardSearch used by the GameEngine
+  void testBoardSearch(Tester t) {
     initData();
-    this.fourx4Power.graph.clear();
-    t.checkExpect(this.fourx4Power.graph.size(), 0);
-    this.fourx4Power.initHash();
-    t.checkExpect(this.fourx4Power.graph.size(), 16);
-    // Checks if any GamePiece's value in the HashMap is -1 (initially)
-    t.checkExpect(this.fourx4Power.graph.get(this.fourx4Power.board.get(0).get(0)), -1);
-    t.checkExpect(this.fourx4Power.graph.get(this.fourx4Power.board.get(0).get(3)), -1);
-  }
-
-  // Testing setDepths((
-  void testSetDepths(Tester t) {
+    BoardSearch search = new BoardSearch(this.fourx4Power.engine.model);
+
+    // The power station's search reaches the whole fractal board
+    t.checkExpect(search.search(this.fourx4Power.engine.model.index(0, 2)),
+        this.fourx4Power.engine.model.index(0, 1));
+    t.checkExpect(search.count, 16);
+    t.checkExpect(search.depthOf(this.fourx4Power.engine.model.index(0, 2)), 0);
+    t.checkExpect(search.depthOf(this.fourx4Power.engine.model.index(3, 2)), 5);
+    t.checkExpect(search.depthOf(this.fourx4Power.engine.model.index(0, 1)), 11);
+
+    // Cutting off the power station leaves only itself, and the stale depths
+    // from the last search no longer count
+    this.fourx4Power.piece(0, 2).rotate();
+    int generation = search.generation;
+    t.checkExpect(search.search(this.fourx4Power.engine.model.index(0, 2)),
+        this.fourx4Power.engine.model.index(0, 2));
+    t.checkExpect(search.generation, generation + 1);
+    t.checkExpect(search.count, 1);
+    t.checkExpect(search.reached(this.fourx4Power.engine.model.index(3, 2)), false);
+    t.checkExpect(search.depthOf(this.fourx4Power.engine.model.index(3, 2)), -1);
+
+    // A one-cell board
+    BoardSearch single = new BoardSearch(new BoardModel(1, 1));
+    t.checkExpect(single.search(0), 0);
+    t.checkExpect(single.count, 1);
+  }
+
+  // Testing the farthest pieces found by the engine's search
+  void testFarthest(Tester t) {
     initData();
+    BoardModel model4 = this.fourx4Power.engine.model;
+    BoardSearch search4 = this.fourx4Power.engine.search;
+    BoardModel model5 = this.fivex5Power.engine.model;
     // Finds the farthest GamePiece from the given GamePiece
-    t.checkExpect(this.fourx4Power.setDepths(0, 2), this.fourx4Power.board.get(0).get(1));
-    t.checkExpect(this.fourx4Power.setDepths(0, 0), this.fourx4Power.board.get(0).get(2));
-    t.checkExpect(this.fourx4Power.setDepths(0, 1), this.fourx4Power.board.get(0).get(2));
-    t.checkExpect(this.fourx4Power.setDepths(2, 0), this.fourx4Power.board.get(0).get(2));
-    t.checkExpect(this.fivex5Power.setDepths(0, 3), this.fivex5Power.board.get(0).get(2));
-
+    t.checkExpect(search4.search(model4.index(0, 2)), model4.index(0, 1));
+    t.checkExpect(search4.search(model4.index(0, 0)), model4.index(0, 2));
+    t.checkExpect(search4.search(model4.index(0, 1)), model4.index(0, 2));
+    t.checkExpect(search4.search(model4.index(2, 0)), model4.index(0, 2));
+    t.checkExpect(this.fivex5Power.engine.search.search(model5.index(0, 3)), model5.index(0, 2));
   }
 
   // Testing calcRadius
   void testCalcRadius(Tester t) {
     initData();
-    t.checkExpect(this.fourx4Power.calcRadius(), 6);
-    t.checkExpect(this.fivex5Power.calcRadius(), 8);
+    t.checkExpect(this.fourx4Power.engine.power.calcRadius(), 6);
+    t.checkExpect(this.fivex5Power.engine.power.calcRadius(), 8);
   }
 
   // Testing fractalBoard()
   void testFractalBoard(Tester t) {
     initData();
 
-    t.checkExpect(this.fourx4Power.board.get(0).get(2).powerStation, true);
-    t.checkExpect(this.fourx4Power.board.get(0).get(2).bottom, true);
-    t.checkExpect(this.fourx4Power.board.get(1).get(2).bottom, false);
-    t.checkExpect(this.fourx4Power.board.get(1).get(2).top, true);
-    t.checkExpect(this.fourx4Power.board.get(1).get(2).right, true);
-    t.checkExpect(this.fourx4Power.board.get(3).get(2).top, true);
-    t.checkExpect(this.fourx4Power.board.get(3).get(2).left, true);
-    t.checkExpect(this.fourx4Power.board.get(3).get(2).right, true);
-    t.checkExpect(this.fourx4Power.board.get(3).get(2).bottom, false);
+    t.checkExpect(this.fourx4Power.piece(0, 2).isPowerStation(), true);
+    t.checkExpect(this.fourx4Power.piece(0, 2).bottom(), true);
+    t.checkExpect(this.fourx4Power.piece(1, 2).bottom(), false);
+    t.checkExpect(this.fourx4Power.piece(1, 2).top(), true);
+    t.checkExpect(this.fourx4Power.piece(1, 2).right(), true);
+    t.checkExpect(this.fourx4Power.piece(3, 2).top(), true);
+    t.checkExpect(this.fourx4Power.piece(3, 2).left(), true);
+    t.checkExpect(this.fourx4Power.piece(3, 2).right(), true);
+    t.checkExpect(this.fourx4Power.piece(3, 2).bottom(), false);
+  }
+
+  // Testing the FractalGenerator against fractalBoard()
+  void testFractalGenerator(Tester t) {
+    initData();
+    java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+    int[][] sizes = { { 1, 1 }, { 1, 7 }, { 2, 2 }, { 2, 9 }, { 3, 3 }, { 4, 4 }, { 5, 8 },
+        { 10, 12 }, { 33, 17 }, { 150, 130 }, { 257, 300 } };
+    for (int[] size : sizes) {
+      BoardModel expected = new BoardModel(size[0], size[1]);
+      this.fractalBoard(expected, size[0], size[1], 0, 0);
+
+      BoardModel actual = new BoardModel(size[0], size[1]);
+      int version = actual.version;
+      new FractalGenerator(actual).generate(pool);
+      t.checkExpect(Arrays.equals(actual.wires, expected.wires), true);
+      t.checkExpect(actual.powerIndex, expected.powerIndex);
+      t.checkExpect(actual.version > version, true);
+    }
+    pool.shutdown();
+
+    // Any one cell's wiring can be worked out on its own
+    for (int[] size : sizes) {
+      BoardModel board = new BoardModel(size[0], size[1]);
+      new FractalGenerator(board).generate(java.util.concurrent.ForkJoinPool.commonPool());
+      boolean same = true;
+      for (int i = 0; i < board.size(); i++) {
+        same = same && FractalGenerator.wiringAt(size[0], size[1], board.rowOf(i),
+            board.colOf(i)) == board.wiring(i);
+      }
+      t.checkExpect(same, true);
+    }
+    // even on a board far too big to wire whole
+    t.checkExpect(FractalGenerator.wiringAt(1 << 30, 1 << 30, 0, 0), BoardModel.BOTTOM);
+    t.checkExpect(FractalGenerator.wiringAt(1 << 30, 1 << 30, (1 << 30) - 1, 0),
+        BoardModel.RIGHT | BoardModel.TOP);
+
+    // Fractal engines are generated with it
+    t.checkExpect(new GameEngine(4, 4, GameEngine.FRACTAL).model.wires,
+        this.fourx4Power.engine.model.wires);
+  }
+
+  // Returns the number BoruvkaMST gives the given edge of a board with the
+  // given number of columns
+  int edgeNumber(Edge edge, int cols) {
+    if (edge.to - edge.from == cols) {
+      return 2 * edge.from + 1;
+    }
+    return 2 * edge.from;
+  }
+
+  // Finds the tree of a board with the given edge weights, by number, with
+  // Kruskal's algorithm
+  // Returns the numbers of the tree's edges, in increasing order
+  int[] kruskalTree(int rows, int cols, byte[] weights) {
+    BoruvkaMST numbers = new BoruvkaMST(rows, cols, weights);
+    KruskalGenerator kruskal = new KruskalGenerator(false);
+    kruskal.allEdges = new ArrayList<Edge>();
+    for (int edge = 0; edge < weights.length; edge++) {
+      if (numbers.exists(edge)) {
+        kruskal.allEdges.add(new Edge(numbers.from(edge), numbers.to(edge), weights[edge]));
+      }
+    }
+    kruskal.sortEdges();
+    kruskal.mst = new ArrayList<Edge>();
+    kruskal.addToMST(rows * cols);
+    int[] tree = new int[kruskal.mst.size()];
+    for (int i = 0; i < tree.length; i++) {
+      tree[i] = this.edgeNumber(kruskal.mst.get(i), cols);
+    }
+    Arrays.sort(tree);
+    return tree;
+  }
+
+  // Testing BoruvkaMST against addToMST()
+  void testBoruvkaMST(Tester t) {
+    // Edges are numbered by the cell they start from, right and then down
+    BoruvkaMST threes = new BoruvkaMST(3, 3, new byte[18]);
+    t.checkExpect(threes.from(1), 0);
+    t.checkExpect(threes.to(1), 3);
+    t.checkExpect(threes.to(6), 4);
+    t.checkExpect(threes.exists(2), true);
+    t.checkExpect(threes.exists(4), false);
+    t.checkExpect(threes.exists(13), false);
+    t.checkExpect(threes.exists(17), false);
+    t.checkConstructorException(
+        new IllegalArgumentException("A 3x3 board needs 18 weights, not 12"), "BoruvkaMST", 3,
+        3, new byte[12]);
+
+    // The same tree as Kruskal's algorithm over the same weights
+    java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+    int[][] sizes = { { 1, 1 }, { 1, 9 }, { 9, 1 }, { 2, 2 }, { 7, 5 }, { 30, 30 },
+        { 120, 90 } };
+    for (int[] size : sizes) {
+      byte[] weights = new byte[2 * size[0] * size[1]];
+      BoruvkaMST boruvka = new BoruvkaMST(size[0], size[1], weights);
+      boruvka.randomWeights(size[0] * 1000 + size[1], pool);
+      int[] tree = boruvka.run(pool);
+      t.checkExpect(tree.length, size[0] * size[1] - 1);
+      t.checkExpect(Arrays.equals(tree, this.kruskalTree(size[0], size[1], weights)), true);
+    }
+
+    // The weights only depend on the seed, however the chunks are shared out
+    byte[] shared = new byte[2 * 120 * 90];
+    new BoruvkaMST(120, 90, shared).randomWeights(3, pool);
+    pool.shutdown();
+    java.util.concurrent.ForkJoinPool alone = new java.util.concurrent.ForkJoinPool(1);
+    byte[] single = new byte[2 * 120 * 90];
+    new BoruvkaMST(120, 90, single).randomWeights(3, alone);
+    alone.shutdown();
+    t.checkExpect(Arrays.equals(shared, single), true);
+    boolean inRange = true;
+    for (byte weight : shared) {
+      inRange = inRange && weight >= 0 && weight < Edge.WEIGHT_RANGE;
+    }
+    t.checkExpect(inRange, true);
+
+    // Every weight the same, so only the numbers of the edges break the ties
+    byte[] same = new byte[2 * 20 * 20];
+    Arrays.fill(same, (byte) 7);
+    t.checkExpect(Arrays.equals(new BoruvkaMST(20, 20, same)
+        .run(java.util.concurrent.ForkJoinPool.commonPool()), this.kruskalTree(20, 20, same)),
+        true);
+
+    // An engine can be told to use it, and gets a spanning tree without Edges
+    KruskalGenerator parallelKruskal = new KruskalGenerator(true);
+    GameEngine parallel = new GameEngine(16, 16, parallelKruskal);
+    t.checkExpect(parallelKruskal.tree.length, 16 * 16 - 1);
+    t.checkExpect(parallelKruskal.mst, null);
+    for (int i = 0; i < parallel.model.size(); i++) {
+      parallel.model.setWiring(i, 0);
+    }
+    new BoruvkaMST(16, 16, new byte[2 * 16 * 16]).connect(parallel.model, parallelKruskal.tree);
+    parallel.search.search(0);
+    t.checkExpect(parallel.search.count, 16 * 16);
+    // Both ways find the same tree, and scramble it the same way, for the
+    // same seed
+    int[][] boards = { { 1, 1 }, { 1, 9 }, { 6, 1 }, { 5, 7 }, { 40, 30 }, { 130, 120 } };
+    for (int[] size : boards) {
+      KruskalGenerator sequential = new KruskalGenerator(false, 9);
+      GameEngine kruskalEngine = new GameEngine(size[0], size[1], sequential);
+      KruskalGenerator inParallel = new KruskalGenerator(true, 9);
+      GameEngine boruvkaEngine = new GameEngine(size[0], size[1], inParallel);
+      t.checkExpect(Arrays.equals(kruskalEngine.model.wires, boruvkaEngine.model.wires), true);
+      int[] found = new int[sequential.mst.size()];
+      for (int i = 0; i < found.length; i++) {
+        found[i] = this.edgeNumber(sequential.mst.get(i), size[1]);
+      }
+      Arrays.sort(found);
+      t.checkExpect(Arrays.equals(found, inParallel.tree), true);
+    }
+    // but not for another seed
+    t.checkExpect(Arrays.equals(new GameEngine(40, 30, new KruskalGenerator(false, 9)).model.wires,
+        new GameEngine(40, 30, new KruskalGenerator(true, 10)).model.wires), false);
+    // and the weights of either are drawn the same way on a pool or not
+    byte[] pooled = new byte[2 * 130 * 120];
+    new BoruvkaMST(130, 120, pooled).randomWeights(4,
+        java.util.concurrent.ForkJoinPool.commonPool());
+    byte[] drawn = new byte[2 * 130 * 120];
+    BoruvkaMST.randomWeights(drawn, 4);
+    t.checkExpect(Arrays.equals(pooled, drawn), true);
+
+    // and so can the World
+    LightEmAll world = new LightEmAll(16, 16, new KruskalGenerator(true));
+    t.checkExpect(world.processTitle(), "Kruskal's Enigma");
+    t.checkExpect(world.engine.model.powerIndex, 0);
+  }
+
+  // Generates a board into the given sink
+  // Returns false if the sink failed
+  boolean generateInto(EllerGenerator generator, IRowSink sink) {
+    try {
+      generator.generate(sink);
+      return true;
+    }
+    catch (java.io.IOException e) {
+      return false;
+    }
+  }
+
+  // Testing the EllerGenerator and its sinks
+  void testEllerGenerator(Tester t) {
+    int[][] sizes = { { 1, 1 }, { 1, 6 }, { 6, 1 }, { 2, 2 }, { 5, 7 }, { 40, 33 } };
+    for (int[] size : sizes) {
+      BoardModel model = new BoardModel(size[0], size[1]);
+      t.checkExpect(this.generateInto(new EllerGenerator(size[0], size[1], new Random(4)),
+          new ModelRowSink(model)), true);
+      // A spanning tree: every cell is reached, over one wire less than cells
+      int ends = 0;
+      for (int i = 0; i < model.size(); i++) {
+        ends += Integer.bitCount(model.wiring(i));
+      }
+      t.checkExpect(ends / 2, model.size() - 1);
+      BoardSearch search = new BoardSearch(model);
+      search.search(0);
+      t.checkExpect(search.count, model.size());
+    }
+
+    // Rows can go straight to a stream, two cells to a byte
+    java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+    BoardModel model = new BoardModel(3, 5);
+    t.checkExpect(this.generateInto(new EllerGenerator(3, 5, new Random(4)),
+        new PackedRowWriter(bytes, 5)), true);
+    t.checkExpect(this.generateInto(new EllerGenerator(3, 5, new Random(4)),
+        new ModelRowSink(model)), true);
+    byte[] packed = bytes.toByteArray();
+    t.checkExpect(packed.length, 3 * 3);
+    t.checkExpect(packed[0] & 15, model.wiring(0));
+    t.checkExpect((packed[0] >> 4) & 15, model.wiring(1));
+    t.checkExpect(packed[3 + 2] & 15, model.wiring(model.index(1, 4)));
+    t.checkExpect((packed[3 + 2] >> 4) & 15, 0);
+  }
+
+  // Testing the generators of every kind of board
+  void testBoardGenerators(Tester t) {
+    initData();
+    t.checkExpect(this.fourx4.processTitle(), "Manual Generation");
+    t.checkExpect(this.fourx4Power.processTitle(), "Fractal Puzzle");
+    t.checkExpect(this.kruskalsBoard.processTitle(), "Kruskal's Enigma");
+    t.checkExpect(new LightEmAll(4, 4, GameEngine.PRIM).processTitle(), "Prim's Maze");
+    t.checkConstructorException(new IllegalArgumentException("Unknown board type: 7"),
+        "GameEngine", 4, 4, 7);
+
+    // Prim's algorithm grows a spanning tree
+    int[][] sizes = { { 1, 1 }, { 1, 6 }, { 6, 1 }, { 2, 2 }, { 9, 7 }, { 50, 40 } };
+    for (int[] size : sizes) {
+      BoardModel model = new BoardModel(size[0], size[1]);
+      new PrimGenerator(new Random(2)).growTree(model);
+      int ends = 0;
+      for (int i = 0; i < model.size(); i++) {
+        ends += Integer.bitCount(model.wiring(i));
+      }
+      t.checkExpect(ends / 2, model.size() - 1);
+      BoardSearch search = new BoardSearch(model);
+      search.search(0);
+      t.checkExpect(search.count, model.size());
+    }
+
+    // and the engine scrambles it, with the power station in the corner
+    GameEngine prim = new GameEngine(6, 6, new PrimGenerator(new Random(2)));
+    t.checkExpect(prim.model.powerIndex, 0);
+    t.checkExpect(prim.power.isCurrent(), true);
+    byte[] wires = prim.model.wires.clone();
+    prim.reset();
+    t.checkExpect(Arrays.equals(wires, prim.model.wires), false);
+
+    // Kruskal boards scramble the same tree again when reset
+    KruskalGenerator kruskals = new KruskalGenerator(true);
+    GameEngine kruskal = new GameEngine(6, 6, kruskals);
+    int[] tree = kruskals.tree;
+    kruskal.reset();
+    t.checkExpect(kruskals.tree == tree, true);
   }
 
   // Testing drawPiece()
@@ -1516,9 +1525,333 @@ class ExamplesGame {
 
     result3 = new OverlayImage(outline3, result3);
 
-    t.checkExpect(this.fourx4Power.board.get(0).get(0).drawPiece(6), result1);
-    t.checkExpect(this.fourx4Power.board.get(0).get(2).drawPiece(6), result2);
-    t.checkExpect(this.fourx4Power.board.get(1).get(2).drawPiece(6), result3);
+    t.checkExpect(this.fourx4Power.piece(0, 0).drawPiece(6), result1);
+    t.checkExpect(this.fourx4Power.piece(0, 2).drawPiece(6), result2);
+    t.checkExpect(this.fourx4Power.piece(1, 2).drawPiece(6), result3);
+  }
+
+  // Testing gradient()
+  void testGradient(Tester t) {
+    initData();
+    t.checkExpect(this.fourx4Power.piece(0, 2).gradient(6), 255);
+    t.checkExpect(this.fourx4Power.piece(1, 2).gradient(6), 213);
+    t.checkExpect(this.fourx4Power.piece(3, 2).gradient(6), 43);
+  }
+
+  // Testing the GradientPalette used by makeScene()
+  void testGradientPalette(Tester t) {
+    initData();
+    GamePiece below = this.fourx4Power.piece(1, 2);
+
+    // With every level, the colors are exactly those of drawPiece
+    GradientPalette exact = new GradientPalette(GradientPalette.LEVELS);
+    exact.update(6);
+    t.checkExpect(exact.color(0), new Color(255, 255, 0));
+    t.checkExpect(exact.color(1), new Color(255, below.gradient(6), 0));
+    t.checkExpect(exact.color(6), new Color(255, 0, 0));
+    t.checkExpect(below.drawPiece(exact.color(1)), below.drawPiece(6));
+
+    // Fewer levels round to the nearest one, and share their Colors
+    GradientPalette few = new GradientPalette(3);
+    few.update(6);
+    t.checkExpect(few.level(0), 2);
+    t.checkExpect(few.level(1), 2);
+    t.checkExpect(few.level(3), 1);
+    t.checkExpect(few.level(6), 0);
+    t.checkExpect(few.color(3), new Color(255, 127, 0));
+    t.checkExpect(few.color(0) == few.color(1), true);
+
+    // The levels only change with the radius
+    int[] levels = few.levelOf;
+    few.update(6);
+    t.checkExpect(few.levelOf == levels, true);
+    few.update(2);
+    t.checkExpect(few.level(1), 1);
+    t.checkExpect(few.level(2), 0);
+    few.update(12);
+    t.checkExpect(few.level(6), 1);
+
+    // Out of range numbers of levels are clamped
+    t.checkExpect(new GradientPalette(1).levels, 2);
+    t.checkExpect(new GradientPalette(1000).levels, 256);
+  }
+
+  // Testing the TileCache used by makeScene()
+  void testTileCache(Tester t) {
+    initData();
+    GradientPalette palette = new GradientPalette(GradientPalette.LEVELS);
+    TileCache tiles = new TileCache(palette);
+    GamePiece station = this.fourx4Power.piece(0, 2);
+    GamePiece unpowered = this.threex3.piece(0, 0);
+    palette.update(6);
+
+    // Tiles look exactly like the pieces they were built from
+    t.checkExpect(tiles.draw(station), station.drawPiece(6));
+    t.checkExpect(tiles.draw(unpowered), unpowered.drawPiece(6));
+    t.checkExpect(tiles.built, 2);
+
+    // Pieces wired the same way share one tile, also across boards
+    GamePiece other = this.fourx4.piece(0, 3);
+    t.checkExpect(other.wiring(), unpowered.wiring());
+    t.checkExpect(other.isPowered(), false);
+    t.checkExpect(tiles.draw(other) == tiles.draw(unpowered), true);
+    t.checkExpect(tiles.built, 2);
+
+    // A different level of the gradient is a different tile
+    GamePiece below = this.fourx4Power.piece(1, 2);
+    t.checkExpect(tiles.draw(below), below.drawPiece(6));
+    WorldImage sixth = tiles.draw(below);
+    palette.update(7);
+    t.checkExpect(tiles.draw(station), station.drawPiece(7));
+    t.checkExpect(tiles.draw(below) == sixth, false);
+    t.checkExpect(tiles.built, 4);
+
+    // Drawing a frame builds each kind of tile once, however often it repeats
+    this.kruskalsBoard.makeScene();
+    int built = this.kruskalsBoard.tiles.built;
+    t.checkExpect(built <= 64, true);
+    this.kruskalsBoard.makeScene();
+    t.checkExpect(this.kruskalsBoard.tiles.built, built);
+
+    // With two levels, a powered piece is either yellow or red
+    LightEmAll twoLevels = new LightEmAll(8, 8, 1, 2);
+    twoLevels.makeScene();
+    t.checkExpect(twoLevels.tiles.tiles.length, 96);
+    t.checkExpect(twoLevels.tiles.built <= 96, true);
+  }
+
+  // Testing the list of changed cells kept by BoardModel and PowerGrid
+  void testChanges(Tester t) {
+    initData();
+    BoardModel model = this.fourx4Power.engine.model;
+    // Nothing is kept until it is asked for
+    model.rotate(0);
+    t.checkExpect(model.changedCells, null);
+    model.trackChanges();
+    t.checkExpect(model.allChanged, true);
+    model.clearChanges();
+
+    model.rotate(0);
+    model.rotate(0);
+    t.checkExpect(model.changedCount, 1);
+    t.checkExpect(model.changedCells[0], 0);
+    model.clearChanges();
+    t.checkExpect(model.changedCount, 0);
+    t.checkExpect(model.changedMark[0], false);
+    this.fourx4Power.engine.update();
+    model.clearChanges();
+
+    // Cutting off the power station lists the station and everything it powered
+    this.fourx4Power.engine.rotate(model.index(0, 2));
+    t.checkExpect(model.allChanged, false);
+    t.checkExpect(model.changedCount >= 10, true);
+    t.checkExpect(model.changedMark[model.index(3, 2)], true);
+    model.clearChanges();
+
+    // A full update may change every cell
+    this.fourx4Power.engine.power.recompute();
+    t.checkExpect(model.allChanged, true);
+  }
+
+  // Testing the BoardRaster used by makeScene()
+  void testBoardRaster(Tester t) {
+    initData();
+    LightEmAll world = this.fourx4Power;
+    world.renderWithRaster();
+    BoardRaster raster = world.raster;
+    int cell = GamePiece.CELL_LENGTH;
+
+    // The first frame paints every cell, and the next one none
+    world.makeScene();
+    t.checkExpect(raster.painted, 16);
+    world.scene = null;
+    world.makeScene();
+    t.checkExpect(raster.painted, 0);
+
+    // The pixels are those of the pieces: an outline, wires in their colors,
+    // and the power station's star
+    t.checkExpect(raster.image.getPixel(0, 0), Color.BLACK);
+    t.checkExpect(raster.image.getPixel(5, 5), Color.DARK_GRAY);
+    t.checkExpect(raster.image.getPixel(2 * cell + cell / 2, cell / 2), Color.CYAN);
+    t.checkExpect(raster.image.getPixel(2 * cell + cell / 2, cell + 5),
+        world.palette.color(1));
+    t.checkExpect(raster.image.getPixel(cell / 2, cell - 5), Color.GRAY);
+
+    // Turning a piece that is not powered repaints only that piece
+    world.onMouseClicked(new Posn(5, world.boardHeight - world.height + 5), "LeftButton");
+    world.makeScene();
+    t.checkExpect(raster.painted, 1);
+    t.checkExpect(raster.image.getPixel(cell / 2, cell - 5), Color.DARK_GRAY);
+
+    // Every kind of piece is drawn once, and shares its Colors
+    t.checkExpect(raster.sprite(raster.shown[0]) == raster.sprite(raster.shown[0]), true);
+    t.checkExpect(raster.colors.size() < 16, true);
+
+    // Resetting makes a raster for the new board
+    world.onMouseClicked(new Posn(world.width - (world.boardHeight - world.height) / 10 - 1,
+        (world.boardHeight - world.height) / 2), "LeftButton");
+    t.checkExpect(world.raster.model, world.engine.model);
+    world.makeScene();
+    t.checkExpect(world.raster.painted, 16);
+  }
+
+  // Testing the Camera
+  void testCamera(Tester t) {
+    initData();
+    // Small boards fit in the view
+    Camera small = this.fourx4.camera;
+    t.checkExpect(small.viewWidth, 160);
+    t.checkExpect(small.endCol(), 4);
+    t.checkExpect(small.colAt(159), 3);
+    t.checkExpect(small.colAt(160), -1);
+    small.pan(40, 40);
+    t.checkExpect(small.left, 0);
+
+    // Big ones are seen a window at a time
+    Camera camera = new Camera(100, 200);
+    t.checkExpect(camera.viewWidth, Camera.MAX_VIEW_WIDTH);
+    t.checkExpect(camera.viewHeight, Camera.MAX_VIEW_HEIGHT);
+    t.checkExpect(camera.firstCol(), 0);
+    t.checkExpect(camera.endCol(), 30);
+    t.checkExpect(camera.endRow(), 20);
+    camera.pan(100, 20);
+    t.checkExpect(camera.firstCol(), 2);
+    t.checkExpect(camera.endCol(), 33);
+    t.checkExpect(camera.firstRow(), 0);
+    t.checkExpect(camera.screenX(3), 20);
+    t.checkExpect(camera.colAt(25), 3);
+    t.checkExpect(camera.rowAt(25), 1);
+    camera.pan(100000, 100000);
+    t.checkExpect(camera.left, 200 * 40 - 1200);
+    t.checkExpect(camera.endCol(), 200);
+    t.checkExpect(camera.endRow(), 100);
+
+    // Zooming keeps the middle of the view in the middle
+    camera.pan(-100000, -100000);
+    camera.pan(2000, 1000);
+    int version = camera.version;
+    camera.zoom(false);
+    t.checkExpect(camera.cellSize, 20);
+    t.checkExpect(camera.left, (2000 + 600) / 2 - 600);
+    t.checkExpect(camera.top, (1000 + 400) / 2 - 400);
+    t.checkExpect(camera.version, version + 1);
+    camera.zoom(true);
+    t.checkExpect(camera.left, 2000);
+    // Zoomed all the way out, the whole board fits
+    for (int i = 0; i < 10; i++) {
+      camera.zoom(false);
+    }
+    t.checkExpect(camera.cellSize, Camera.MIN_CELL_SIZE);
+    t.checkExpect(camera.cellsPerPixel, Camera.MAX_CELLS_PER_PIXEL);
+    t.checkExpect(camera.left, 0);
+    t.checkExpect(camera.drawnWidth(), 13);
+    t.checkExpect(camera.endCol(), 200);
+    t.checkExpect(camera.screenX(199), 12);
+    t.checkExpect(camera.colAt(12), 192);
+    t.checkExpect(camera.colAt(13), -1);
+    // and zooming back in goes through one pixel per cell
+    for (int i = 0; i < 4; i++) {
+      camera.zoom(true);
+    }
+    t.checkExpect(camera.cellsPerPixel, 1);
+    t.checkExpect(camera.cellSize, 1);
+    t.checkExpect(camera.colAt(199), 199);
+    t.checkExpect(camera.colAt(200), -1);
+  }
+
+  // Testing a board bigger than the view
+  void testBigBoard(Tester t) {
+    initData();
+    LightEmAll world = new LightEmAll(100, 100, 0);
+    int extraSpace = world.boardHeight - world.height;
+    t.checkExpect(world.width, Camera.MAX_VIEW_WIDTH);
+    t.checkExpect(world.height, Camera.MAX_VIEW_HEIGHT);
+
+    // Clicks go to the piece the camera shows under them
+    world.onKeyEvent("d");
+    world.onKeyEvent("s");
+    t.checkExpect(world.camera.left, 300);
+    t.checkExpect(world.camera.top, 200);
+    world.onMouseClicked(new Posn(5, extraSpace + 5), "LeftButton");
+    t.checkExpect(world.piece(5, 7).top(), true);
+    t.checkExpect(world.score, 1);
+
+    // Zooming is done with keys that do not move the power station
+    world.onKeyEvent("-");
+    t.checkExpect(world.camera.cellSize, 20);
+    t.checkExpect(world.score, 1);
+    world.onMouseClicked(new Posn(25, extraSpace + 5), "LeftButton");
+    t.checkExpect(world.piece(world.camera.rowAt(5), world.camera.colAt(25)).top(),
+        true);
+    world.makeScene();
+    t.checkExpect(world.tiles.scale, 0.5);
+
+    // The raster is the size of the view, however big the board is
+    world.renderWithRaster();
+    world.makeScene();
+    t.checkExpect(world.raster.painted,
+        (world.camera.endRow() - world.camera.firstRow())
+            * (world.camera.endCol() - world.camera.firstCol()));
+    world.onKeyEvent("+");
+    world.makeScene();
+    t.checkExpect(world.raster.spriteSize, 40);
+    t.checkExpect(world.raster.painted <= 31 * 21, true);
+  }
+
+  // Testing the flat blocks drawn when zoomed far out
+  void testLevelOfDetail(Tester t) {
+    initData();
+    LightEmAll world = this.fourx4Power;
+    for (int i = 0; i < 3; i++) {
+      world.onKeyEvent("-");
+    }
+    t.checkExpect(world.camera.cellSize, 5);
+
+    // Drawing one image per piece gives way to a raster of flat blocks
+    world.makeScene();
+    BoardRaster raster = world.raster;
+    t.checkExpect(raster.flat(), true);
+    t.checkExpect(raster.painted, 16);
+    t.checkExpect(raster.image.getPixel(12, 2), Color.CYAN);
+    t.checkExpect(raster.image.getPixel(12, 7), world.palette.color(1));
+    t.checkExpect(raster.image.getPixel(2, 2), Color.DARK_GRAY);
+    t.checkExpect(raster.image.getPixel(30, 30), Color.BLACK);
+    t.checkExpect(raster.pixels[2 * world.width + 12], Color.CYAN.getRGB());
+    world.scene = null;
+    world.makeScene();
+    t.checkExpect(raster.painted, 0);
+
+    // Past one pixel per cell, every pixel shows its brightest cell
+    for (int i = 0; i < 3; i++) {
+      world.onKeyEvent("-");
+    }
+    t.checkExpect(world.camera.cellsPerPixel, 2);
+    world.makeScene();
+    t.checkExpect(raster.painted, 4);
+    t.checkExpect(raster.image.getPixel(1, 0), Color.CYAN);
+    t.checkExpect(raster.image.getPixel(2, 0), Color.BLACK);
+    t.checkExpect(raster.shown[world.engine.model.index(3, 3)],
+        raster.shade(world.engine.model.index(3, 3)));
+
+    // Only the pixel over a cell whose shade changed is painted again
+    world.engine.model.setPowerStation(world.engine.model.index(3, 3));
+    world.makeScene();
+    t.checkExpect(raster.image.getPixel(1, 1), Color.CYAN);
+    t.checkExpect(raster.painted <= 4, true);
+  }
+
+  // Testing drawHud()
+  void testDrawHud(Tester t) {
+    initData();
+    WorldImage hud = this.kruskalsBoard.drawHud();
+    String time = this.kruskalsBoard.hudTime;
+    // The strip is reused until the time or the moves change
+    if (time.equals(this.kruskalsBoard.processTime())) {
+      t.checkExpect(this.kruskalsBoard.drawHud() == hud, true);
+    }
+    this.kruskalsBoard.score++;
+    t.checkExpect(this.kruskalsBoard.drawHud() == hud, false);
+    t.checkExpect(this.kruskalsBoard.hudScore, 1);
   }
 
   // Testing worldEnds()
@@ -1529,18 +1862,125 @@ class ExamplesGame {
     // t.checkExpect(this.fivex5Power.worldEnds(), new WorldEnd(false,
     // this.fivex5Power.makeScene()));
     this.twox2Power.onKeyEvent("down");
-    this.twox2Power.getPowered();
+    this.twox2Power.updatePower();
     // t.checkExpect(this.twox2Power.worldEnds(), new WorldEnd(true,
     // this.twox2Power.finalScene()));
   }
 
+  // Testing that a tick settles the game and builds its scene only once
+  void testSettle(Tester t) {
+    initData();
+    LightEmAll world = this.fourx4Power;
+    world.onTick();
+    t.checkExpect(world.settledModel, world.engine.model);
+    t.checkExpect(world.settledVersion, world.engine.model.version);
+    t.checkExpect(world.solved, false);
+
+    // worldEnds and the drawing that follows it share one scene
+    world.worldEnds();
+    WorldScene scene = world.scene;
+    t.checkExpect(scene == null, false);
+    t.checkExpect(world.makeScene() == scene, true);
+
+    // A move makes the next tick settle the board and build a new scene
+    world.onMouseClicked(new Posn(5, world.boardHeight - world.height + 5), "LeftButton");
+    t.checkExpect(world.settledVersion == world.engine.model.version, false);
+    world.onTick();
+    t.checkExpect(world.settledVersion, world.engine.model.version);
+    t.checkExpect(world.makeScene() == scene, false);
+
+    // So does moving the camera
+    scene = world.makeScene();
+    world.onKeyEvent("-");
+    t.checkExpect(world.makeScene() == scene, false);
+
+    // The winning scene is not reused for the board
+    WorldScene end = this.twox2Power.finalScene();
+    t.checkExpect(this.twox2Power.makeScene() == end, false);
+  }
+
+  // Testing the FramePacer
+  void testFramePacer(Tester t) {
+    initData();
+    FramePacer pacer = new FramePacer();
+    // The first frame is always due, and then not again until the next second
+    t.checkExpect(pacer.frameDue(5300), true);
+    pacer.frameBuilt(5300, 2000000);
+    t.checkExpect(pacer.nextSecond, 6000L);
+    t.checkExpect(pacer.frameDue(5999), false);
+    t.checkExpect(pacer.frameDue(6000), true);
+    // unless something happens first
+    pacer.invalidate();
+    t.checkExpect(pacer.frameDue(5400), true);
+
+    // The frame cost is a running average. Cheap frames tick as slowly as the
+    // clock allows, and costly ones slower still, to leave time to spare.
+    pacer.frameBuilt(5400, 4000000);
+    t.checkInexact(pacer.frameNanos, 2200000.0, 0.001);
+    t.checkExpect(pacer.tickRate(), FramePacer.TICK_RATE);
+    pacer.frameNanos = 30000000;
+    t.checkExpect(pacer.tickRate(), FramePacer.TICK_RATE);
+    pacer.frameNanos = 200000000;
+    t.checkInexact(pacer.tickRate(), 0.4, 0.001);
+    pacer.frameNanos = 1e9;
+    t.checkExpect(pacer.tickRate(), FramePacer.MAX_TICK_RATE);
+
+    // A world reuses its scene until there is input
+    LightEmAll world = this.fourx4Power;
+    WorldScene scene = world.makeScene();
+    t.checkExpect(world.pacer.dirty, false);
+    if (!world.pacer.frameDue(System.currentTimeMillis())) {
+      t.checkExpect(world.makeScene() == scene, true);
+    }
+    world.onMouseClicked(new Posn(5, world.boardHeight - world.height + 5), "RightButton");
+    t.checkExpect(world.pacer.dirty, true);
+    t.checkExpect(world.makeScene() == scene, false);
+  }
+
+  // Testing the count of powered cells, and the event when it reaches them all
+  void testSolvedEvent(Tester t) {
+    initData();
+    // The count follows every kind of update of the power
+    GameEngine engine = new GameEngine(8, 8, GameEngine.KRUSKAL);
+    Random rand = new Random(3);
+    for (int i = 0; i < 200; i++) {
+      engine.rotate(rand.nextInt(engine.model.size()));
+      engine.movePowerStation(1 << rand.nextInt(4));
+      int count = 0;
+      for (boolean poweredCell : engine.model.powered) {
+        count += poweredCell ? 1 : 0;
+      }
+      t.checkExpect(engine.model.poweredCount, count);
+    }
+
+    // The world hears the moment the last piece powers up, and its clock stops
+    t.checkExpect(this.twox2Power.solvedSec, -1);
+    this.twox2Power.onKeyEvent("down");
+    t.checkExpect(this.twox2Power.engine.wasSolved, true);
+    t.checkExpect(this.twox2Power.solvedSec == -1, false);
+    this.twox2Power.currSec = this.twox2Power.solvedSec - 61;
+    t.checkExpect(this.twox2Power.processTime(), "01:01");
+
+    // A board that starts solved stops the clock as soon as the world listens
+    LightEmAll single = new LightEmAll(1, 1, GameEngine.MANUAL);
+    t.checkExpect(single.engine.model.poweredCount, 1);
+    t.checkExpect(single.engine.wasSolved, true);
+    t.checkExpect(single.solvedSec == -1, false);
+    t.checkExpect(single.allConnected(), true);
+
+    // and so does a world shown an engine that is solved already
+    LightEmAll again = new LightEmAll(this.twox2Power.engine, GradientPalette.LEVELS);
+    t.checkExpect(again.solvedSec == -1, false);
+    t.checkExpect(this.twox2Power.engine.listener, again);
+  }
+
   // Testing the method allConnected()
   void testAllConnected(Tester t) {
     initData();
     t.checkExpect(this.fourx4Power.allConnected(), false);
     t.checkExpect(this.twox2Power.allConnected(), false);
     this.twox2Power.onKeyEvent("down");
-    this.twox2Power.getPowered();
+    this.twox2Power.updatePower();
 
     t.checkExpect(this.twox2Power.allConnected(), true);
   }
@@ -1579,130 +2019,160 @@ class ExamplesGame {
     t.checkExpect(this.kruskalsBoard.processTime(), "00:00");
   }
 
-  // Tests the method mstDone()
-  void testMstDone(Tester t) {
-    initData();
-    HashMap<String, String> tester = new HashMap<String, String>();
-    tester.put("One", "One");
-    tester.put("Two", "Two");
-    t.checkExpect(this.kruskalsBoard.mstDone(tester), false);
-    tester.put("Two", "One");
-    t.checkExpect(this.kruskalsBoard.mstDone(tester), true);
-  }
-
-  // Tests the findRep() method
-  void testFindRep(Tester t) {
+  // Tests the UnionFind used by addToMST()
+  void testUnionFind(Tester t) {
     initData();
 
-    HashMap<String, String> tester = new HashMap<String, String>();
-    tester.put("One", "One");
-    tester.put("Two", "One");
-    tester.put("Three", "Two");
-
-    t.checkExpect(this.kruskalsBoard.findRep(tester, "One"), "One");
-    t.checkExpect(this.kruskalsBoard.findRep(tester, "Two"), "One");
-    t.checkExpect(this.kruskalsBoard.findRep(tester, "Three"), "One");
+    UnionFind reps = new UnionFind(4);
+    t.checkExpect(reps.sets, 4);
+    t.checkExpect(reps.find(2), 2);
+    t.checkExpect(reps.union(0, 1), true);
+    t.checkExpect(reps.union(2, 3), true);
+    t.checkExpect(reps.sets, 2);
+    t.checkExpect(reps.sameSet(0, 1), true);
+    t.checkExpect(reps.sameSet(1, 2), false);
+    t.checkExpect(reps.union(1, 0), false);
+    t.checkExpect(reps.union(3, 0), true);
+    t.checkExpect(reps.sets, 1);
+    t.checkExpect(reps.find(3), reps.find(1));
+    // Path compression leaves every element pointing straight at the representative
+    t.checkExpect(reps.parent[3], reps.find(0));
   }
 
   // Tests the connect() method
   void testConnect(Tester t) {
     initData();
 
-    GamePiece gp1 = new GamePiece(0, 0, false, false, false, false, false);
-    GamePiece gp2 = new GamePiece(1, 0, false, false, false, false, false);
-    GamePiece gp3 = new GamePiece(1, 1, false, false, false, false, false);
-    GamePiece gp4 = new GamePiece(0, 1, false, false, false, false, true);
+    GameEngine engine = this.twox2Power.engine;
+    engine.manualBoard();
+    GamePiece gp1 = new GamePiece(engine.model, 0, 0);
+    GamePiece gp2 = new GamePiece(engine.model, 1, 0);
+    GamePiece gp3 = new GamePiece(engine.model, 1, 1);
+    GamePiece gp4 = new GamePiece(engine.model, 0, 1);
 
-    Edge e1 = new Edge(gp1, gp2);
-    Edge e2 = new Edge(gp2, gp3);
-    Edge e3 = new Edge(gp3, gp4);
+    Edge e1 = new Edge(gp1.index, gp2.index);
+    Edge e2 = new Edge(gp2.index, gp3.index);
+    Edge e3 = new Edge(gp3.index, gp4.index);
 
     ArrayList<Edge> loEdge = new ArrayList<Edge>(Arrays.asList(e1, e2, e3));
 
-    this.twox2Power.mst = loEdge;
-    this.twox2Power.connect();
+    KruskalGenerator kruskal = new KruskalGenerator(false);
+    kruskal.mst = loEdge;
+    kruskal.connect(engine.model);
 
-    t.checkExpect(gp1.bottom && gp2.top, true);
-    t.checkExpect(gp2.right && gp3.left, true);
-    t.checkExpect(gp3.top && gp4.bottom, true);
+    t.checkExpect(gp1.bottom() && gp2.top(), true);
+    t.checkExpect(gp2.right() && gp3.left(), true);
+    t.checkExpect(gp3.top() && gp4.bottom(), true);
+    t.checkExpect(gp1.right() || gp4.left(), false);
   }
 
   // Tests the addToMst() method
   void testAddToMST(Tester t) {
     initData();
+    ArrayList<Edge> mst = this.kruskals.mst;
 
-    t.checkExpect(this.kruskalsBoard.mst.size(), 63);
-    t.checkExpect(this.kruskalsBoard.mst.get(0).weight <= this.kruskalsBoard.mst.get(1).weight,
-        true);
-    t.checkExpect(this.kruskalsBoard.mst.get(1).weight >= this.kruskalsBoard.mst.get(4).weight,
-        false);
-  }
-
-  // Testing the method existsEdge()
-  void testExistsEdge(Tester t) {
-    initData();
-
-    Edge one = new Edge(this.kruskalsBoard.board.get(0).get(0),
-        this.kruskalsBoard.board.get(0).get(1));
-    Edge two = new Edge(this.kruskalsBoard.board.get(1).get(1),
-        this.kruskalsBoard.board.get(0).get(1));
-    Edge three = new Edge(this.kruskalsBoard.board.get(0).get(0),
-        this.kruskalsBoard.board.get(1).get(0));
-    ArrayList<Edge> testEdge = new ArrayList<Edge>(Arrays.asList(one, two, three));
-
-    t.checkExpect(this.kruskalsBoard.existsEdge(this.kruskalsBoard.board.get(0).get(0),
-        this.kruskalsBoard.board.get(0).get(1), testEdge), true);
-    t.checkExpect(this.kruskalsBoard.existsEdge(this.kruskalsBoard.board.get(1).get(0),
-        this.kruskalsBoard.board.get(0).get(1), testEdge), false);
+    t.checkExpect(mst.size(), 63);
+    t.checkExpect(mst.get(0).weight <= mst.get(1).weight, true);
+    t.checkExpect(mst.get(1).weight >= mst.get(4).weight, false);
   }
 
   // Testing the method sortEdges()
   void testSortEdges(Tester t) {
     initData();
+    ArrayList<Edge> mst = this.kruskals.mst;
 
-    this.kruskalsBoard.sortEdges();
+    this.kruskals.sortEdges();
 
     // Sorts all the data already
-    t.checkExpect(this.kruskalsBoard.mst.get(0).weight <= this.kruskalsBoard.mst.get(1).weight,
-        true);
+    t.checkExpect(mst.get(0).weight <= mst.get(1).weight, true);
 
-    t.checkExpect(this.kruskalsBoard.mst.get(1).weight <= this.kruskalsBoard.mst.get(2).weight,
-        true);
+    t.checkExpect(mst.get(1).weight <= mst.get(2).weight, true);
+  }
+
+  // Testing the BucketSortByWeight function object
+  void testBucketSortByWeight(Tester t) {
+    initData();
+
+    Edge e1 = new Edge(0, 1);
+    e1.weight = 42;
+    Edge e2 = new Edge(1, 2);
+    e2.weight = 7;
+    Edge e3 = new Edge(3, 4);
+    e3.weight = 42;
+    Edge e4 = new Edge(4, 5);
+    e4.weight = 0;
+    ArrayList<Edge> edges = new ArrayList<Edge>(Arrays.asList(e1, e2, e3, e4));
+
+    BucketSortByWeight buckets = new BucketSortByWeight(Edge.WEIGHT_RANGE);
+    t.checkExpect(buckets.fits(edges), true);
+    buckets.sort(edges);
+    // Equal weights keep their order, just like the comparison sort
+    t.checkExpect(edges, new ArrayList<Edge>(Arrays.asList(e4, e2, e1, e3)));
+
+    e2.weight = 100;
+    t.checkExpect(buckets.fits(edges), false);
+    e2.weight = -1;
+    t.checkExpect(buckets.fits(edges), false);
+
+    // The whole board sorts the same way as with SortByWeight
+    ArrayList<Edge> compared = new ArrayList<Edge>(this.kruskals.allEdges);
+    Collections.shuffle(compared, new Random(3));
+    ArrayList<Edge> bucketed = new ArrayList<Edge>(compared);
+    compared.sort(new SortByWeight());
+    buckets.sort(bucketed);
+    t.checkExpect(bucketed, compared);
   }
 
   // Testing the addAllEdges() method
   void testAddAllEdges(Tester t) {
     initData();
-    t.checkExpect(this.kruskalsBoard.allEdges.size(), 112);
+    t.checkExpect(this.kruskals.allEdges.size(), 112);
+    t.checkExpect(this.kruskalsBoard.engine.model.edgeCount(), 112);
+
+    KruskalGenerator kruskal = new KruskalGenerator(false);
+    kruskal.allEdges = new ArrayList<Edge>();
+    byte[] weights = new byte[2 * 9];
+    for (int i = 0; i < weights.length; i++) {
+      weights[i] = (byte) i;
+    }
+    kruskal.addAllEdges(this.threex3.engine.model, weights);
+    // 2 edges per row and 2 per column
+    t.checkExpect(kruskal.allEdges.size(), 12);
+    // with the weights of their numbers
+    t.checkExpect(kruskal.allEdges.get(1).weight, 1);
+    t.checkExpect(kruskal.allEdges.get(4).weight, 5);
+    t.checkExpect(kruskal.allEdges.get(11).weight, 14);
+    // Edges of each cell to the right and then below, in reading order
+    t.checkExpect(kruskal.allEdges.get(0).from, 0);
+    t.checkExpect(kruskal.allEdges.get(0).to, 1);
+    t.checkExpect(kruskal.allEdges.get(1).to, 3);
+    t.checkExpect(kruskal.allEdges.get(4).from, 2);
+    t.checkExpect(kruskal.allEdges.get(4).to, 5);
+    t.checkExpect(kruskal.allEdges.get(11).from, 7);
+    t.checkExpect(kruskal.allEdges.get(11).to, 8);
   }
 
   void testRotatePieces(Tester t) {
     initData();
 
-    this.twox2Power.rotatePieces();
+    this.twox2Power.engine.rotatePieces();
+    GamePiece corner = this.twox2Power.piece(0, 0);
+    GamePiece bend = this.twox2Power.piece(1, 0);
 
-    t.checkExpect(this.twox2Power.board.get(0).get(0).left
-        || this.twox2Power.board.get(0).get(0).right || this.twox2Power.board.get(0).get(0).top
-        || this.twox2Power.board.get(0).get(0).bottom, true);
+    t.checkExpect(corner.left() || corner.right() || corner.top() || corner.bottom(), true);
 
-    t.checkExpect((this.twox2Power.board.get(1).get(0).top
-        && this.twox2Power.board.get(1).get(0).right)
-        || (this.twox2Power.board.get(1).get(0).right && this.twox2Power.board.get(1).get(0).bottom)
-        || (this.twox2Power.board.get(1).get(0).bottom && this.twox2Power.board.get(1).get(0).left)
-        || (this.twox2Power.board.get(1).get(0).left && this.twox2Power.board.get(1).get(0).top),
-        true);
+    t.checkExpect((bend.top() && bend.right()) || (bend.right() && bend.bottom())
+        || (bend.bottom() && bend.left()) || (bend.left() && bend.top()), true);
   }
 
   // Testing the compare() method
   void testCompare(Tester t) {
     initData();
-    this.kruskalsBoard.sortEdges();
+    this.kruskals.sortEdges();
 
-    Edge e1 = new Edge(this.kruskalsBoard.board.get(0).get(0),
-        this.kruskalsBoard.board.get(0).get(1));
+    Edge e1 = new Edge(0, 1);
     e1.weight = 10;
-    Edge e2 = new Edge(this.kruskalsBoard.board.get(0).get(0),
-        this.kruskalsBoard.board.get(0).get(1));
+    Edge e2 = new Edge(0, 1);
     e2.weight = 15;
 
     t.checkExpect(new SortByWeight().compare(e1, e2), -1);
@@ -1710,76 +2180,68 @@ class ExamplesGame {
     t.checkExpect(new SortByWeight().compare(e1, e1), 0);
   }
 
-  // Testing the assignNeighbors() method
-  void testAssignNeighbors(Tester t) {
-    initData();
-
-    ArrayList<GamePiece> neighbor00 = new ArrayList<GamePiece>(Arrays
-        .asList(this.threex3Power.board.get(0).get(1), this.threex3Power.board.get(1).get(0)));
-
-    ArrayList<GamePiece> neighbor01 = new ArrayList<GamePiece>(
-        Arrays.asList(this.threex3Power.board.get(0).get(0), this.threex3Power.board.get(0).get(2),
-            this.threex3Power.board.get(1).get(1)));
-
-    ArrayList<GamePiece> neighbor02 = new ArrayList<GamePiece>(Arrays
-        .asList(this.threex3Power.board.get(0).get(1), this.threex3Power.board.get(1).get(2)));
-
-    ArrayList<GamePiece> neighbor10 = new ArrayList<GamePiece>(
-        Arrays.asList(this.threex3Power.board.get(0).get(0), this.threex3Power.board.get(2).get(0),
-            this.threex3Power.board.get(1).get(1)));
-
-    ArrayList<GamePiece> neighbor11 = new ArrayList<GamePiece>(
-        Arrays.asList(this.threex3Power.board.get(1).get(0), this.threex3Power.board.get(1).get(2),
-            this.threex3Power.board.get(0).get(1), this.threex3Power.board.get(2).get(1)));
-
-    ArrayList<GamePiece> neighbor12 = new ArrayList<GamePiece>(
-        Arrays.asList(this.threex3Power.board.get(0).get(2), this.threex3Power.board.get(2).get(2),
-            this.threex3Power.board.get(1).get(1)));
-
-    ArrayList<GamePiece> neighbor20 = new ArrayList<GamePiece>(Arrays
-        .asList(this.threex3Power.board.get(1).get(0), this.threex3Power.board.get(2).get(1)));
-
-    ArrayList<GamePiece> neighbor21 = new ArrayList<GamePiece>(
-        Arrays.asList(this.threex3Power.board.get(2).get(0), this.threex3Power.board.get(2).get(2),
-            this.threex3Power.board.get(1).get(1)));
-
-    ArrayList<GamePiece> neighbor22 = new ArrayList<GamePiece>(Arrays
-        .asList(this.threex3Power.board.get(1).get(2), this.threex3Power.board.get(2).get(1)));
-
-    this.threex3Power.board.get(0).get(0).assignNeighbors(this.threex3Power.board);
-    t.checkExpect(this.threex3Power.board.get(0).get(0).neighbors, neighbor00);
-    this.threex3Power.board.get(0).get(1).assignNeighbors(this.threex3Power.board);
-    t.checkExpect(this.threex3Power.board.get(0).get(1).neighbors, neighbor01);
-    this.threex3Power.board.get(0).get(2).assignNeighbors(this.threex3Power.board);
-    t.checkExpect(this.threex3Power.board.get(0).get(2).neighbors, neighbor02);
-    this.threex3Power.board.get(1).get(0).assignNeighbors(this.threex3Power.board);
-    t.checkExpect(this.threex3Power.board.get(1).get(0).neighbors, neighbor10);
-    this.threex3Power.board.get(1).get(1).assignNeighbors(this.threex3Power.board);
-    t.checkExpect(this.threex3Power.board.get(1).get(1).neighbors, neighbor11);
-    this.threex3Power.board.get(1).get(2).assignNeighbors(this.threex3Power.board);
-    t.checkExpect(this.threex3Power.board.get(1).get(2).neighbors, neighbor12);
-    this.threex3Power.board.get(2).get(0).assignNeighbors(this.threex3Power.board);
-    t.checkExpect(this.threex3Power.board.get(2).get(0).neighbors, neighbor20);
-    this.threex3Power.board.get(2).get(1).assignNeighbors(this.threex3Power.board);
-    t.checkExpect(this.threex3Power.board.get(2).get(1).neighbors, neighbor21);
-    this.threex3Power.board.get(2).get(2).assignNeighbors(this.threex3Power.board);
-    t.checkExpect(this.threex3Power.board.get(2).get(2).neighbors, neighbor22);
-  }
-
   // Testing the toString() method
   void testToString(Tester t) {
     initData();
 
-    t.checkExpect(this.kruskalsBoard.board.get(0).get(0).toString(), "(1, 1)");
+    t.checkExpect(this.kruskalsBoard.piece(0, 0).toString(), "(1, 1)");
   }
 
   // Testing the connectNodes() method
   void testConnectNodes(Tester t) {
     initData();
-    Edge e = new Edge(this.kruskalsBoard.board.get(0).get(0),
-        this.kruskalsBoard.board.get(0).get(1));
-    e.connectNodes();
-    t.checkExpect(this.kruskalsBoard.board.get(0).get(0).right, true);
-    t.checkExpect(this.kruskalsBoard.board.get(0).get(1).left, true);
+    BoardModel model = new BoardModel(8, 8);
+    Edge e = new Edge(0, 1);
+    e.connectNodes(model);
+    t.checkExpect(model.wiring(0), BoardModel.RIGHT);
+    t.checkExpect(model.wiring(1), BoardModel.LEFT);
+    new Edge(9, 1).connectNodes(model);
+    t.checkExpect(model.wiring(1), BoardModel.LEFT | BoardModel.BOTTOM);
+    t.checkExpect(model.wiring(9), BoardModel.TOP);
+  }
+
+  // Testing the wiring arithmetic of BoardModel
+  void testBoardModel(Tester t) {
+    initData();
+    BoardModel model = new BoardModel(2, 3);
+
+    t.checkExpect(model.size(), 6);
+    t.checkExpect(model.index(1, 2), 5);
+    t.checkExpect(model.rowOf(5), 1);
+    t.checkExpect(model.colOf(5), 2);
+
+    t.checkExpect(BoardModel.opposite(BoardModel.LEFT), BoardModel.RIGHT);
+    t.checkExpect(BoardModel.opposite(BoardModel.BOTTOM), BoardModel.TOP);
+    t.checkExpect(BoardModel.rotateMask(BoardModel.LEFT | BoardModel.TOP, 1),
+        BoardModel.TOP | BoardModel.RIGHT);
+    t.checkExpect(BoardModel.rotateMask(BoardModel.BOTTOM, 1), BoardModel.LEFT);
+    t.checkExpect(BoardModel.rotateMask(BoardModel.LEFT | BoardModel.RIGHT, 2),
+        BoardModel.LEFT | BoardModel.RIGHT);
+
+    t.checkExpect(model.neighbor(0, BoardModel.LEFT), -1);
+    t.checkExpect(model.neighbor(0, BoardModel.TOP), -1);
+    t.checkExpect(model.neighbor(2, BoardModel.RIGHT), -1);
+    t.checkExpect(model.neighbor(3, BoardModel.RIGHT), 4);
+    t.checkExpect(model.neighbor(1, BoardModel.BOTTOM), 4);
+    t.checkExpect(model.neighbor(4, BoardModel.BOTTOM), -1);
+    t.checkExpect(model.directionTo(2, 3), 0);
+    t.checkExpect(model.directionTo(4, 1), BoardModel.TOP);
+
+    model.addWire(0, 0, BoardModel.RIGHT);
+    t.checkExpect(model.linked(0, BoardModel.RIGHT), false);
+    model.addWire(0, 1, BoardModel.BOTTOM);
+    t.checkExpect(model.linked(0, BoardModel.RIGHT), false);
+    model.rotate(1, 1);
+    t.checkExpect(model.wiring(1), BoardModel.LEFT);
+    t.checkExpect(model.linked(0, BoardModel.RIGHT), true);
+    t.checkExpect(model.linked(1, BoardModel.LEFT), true);
+
+    model.setPowerStation(4);
+    GamePiece first = new GamePiece(model, 0, 0);
+    t.checkExpect(new GamePiece(model, 1, 1).isPowerStation(), true);
+    t.checkExpect(first.right(), true);
+    first.rotate();
+    t.checkExpect(first.bottom(), true);
+    t.checkExpect(model.wiring(0), BoardModel.BOTTOM);
   }
 }
@@ -0,0 +1,32 @@
+// The manual board: a horizontal wire along every row, and one vertical
+// wire down the middle
+class ManualGenerator extends ABoardGenerator {
+  // Returns the name of this kind of board
+  public String name() {
+    return "Manual Generation";
+  }
+
+  // EFFECT: Gives the engine a manual board
+  public void generate(GameEngine engine) {
+    engine.manualBoard();
+    this.makeBoard(engine.model);
+  }
+
+  // EFFECT: Wires the given board with the manual generation: a horizontal
+  // wire through every piece, and a vertical one through the middle row
+  void makeBoard(BoardModel model) {
+    int midPointH = model.rows / 2;
+    int midPointW = model.cols / 2;
+
+    for (int i = 0; i < model.size(); i++) {
+      // Midpoint is used to locate the middle of the board or as close as possible.
+      if (model.rowOf(i) == midPointH) {
+        model.setWiring(i, BoardModel.ALL);
+      }
+      else {
+        model.setWiring(i, BoardModel.LEFT | BoardModel.RIGHT);
+      }
+    }
+    model.setPowerStation(model.index(midPointH, midPointW));
+  }
+}
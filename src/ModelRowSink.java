@@ -0,0 +1,15 @@
+// Copies the rows of a board into a BoardModel
+class ModelRowSink implements IRowSink {
+  final BoardModel model;
+
+  ModelRowSink(BoardModel model) {
+    this.model = model;
+  }
+
+  // EFFECT: Sets the wiring of the given row of the model
+  public void acceptRow(int row, byte[] wiring) {
+    for (int col = 0; col < wiring.length; col++) {
+      this.model.setWiring(this.model.index(row, col), wiring[col]);
+    }
+  }
+}
@@ -0,0 +1,22 @@
+import java.io.*;
+
+// Writes the rows of a board to a stream, two cells to a byte: the first
+// cell's wiring in the low four bits and the second's in the high four
+class PackedRowWriter implements IRowSink {
+  final OutputStream out;
+  final byte[] packed;
+
+  PackedRowWriter(OutputStream out, int cols) {
+    this.out = out;
+    this.packed = new byte[(cols + 1) / 2];
+  }
+
+  // EFFECT: Writes the given row to the stream
+  public void acceptRow(int row, byte[] wiring) throws IOException {
+    for (int i = 0; i < this.packed.length; i++) {
+      int high = 2 * i + 1 < wiring.length ? wiring[2 * i + 1] : 0;
+      this.packed[i] = (byte) (wiring[2 * i] | (high << 4));
+    }
+    this.out.write(this.packed);
+  }
+}
@@ -0,0 +1,639 @@
+import java.util.*;
+
+// Keeps the distance of every cell from the power station, and whether it is
+// powered, in step with a BoardModel. A full update searches the whole board
+// from the power station. After a single rotation, only the links of the
+// rotated cell are re-examined: cells that lost their shortest path are
+// retracted and re-measured, and cells that gained a shorter one are extended,
+// so the cost follows the size of the region that actually changed.
+// The radius comes from the longest path through the network. While the
+// network is a tree, the ends of that path and every cell's distance from
+// both are kept, so that a rotation that only cuts cells off the tree and
+// hangs cells onto it can tell from the cells it moved whether the longest
+// path changed. Only when it did (or when the tree gets a loop, or loses an
+// end of its longest path) is the whole network searched again.
+// When the power station's network is a tree, moving the station along one
+// wire changes every distance by exactly one: cells on the far side of that
+// wire get closer and all others get farther. The tree is labelled once in
+// depth-first order, so that each side is a contiguous range of cells.
+class PowerGrid {
+  final BoardModel model;
+  final BoardSearch search;
+  // the effective radius of the power station
+  int radius;
+  // the model version that the distances and power are current for
+  int version;
+
+  // Scratch storage for incremental updates, allocated on first use:
+  // a ring buffer of cells waiting to be examined
+  int[] work;
+  // the cells whose distance is being recomputed
+  int[] affected;
+  int affectedCount;
+  // the cells that joined the network in the current update, marked with
+  // its generation, and their distance from the cell they hang from
+  int[] joined;
+  int joinedCount;
+  int[] joinedMark;
+  int[] hang;
+  // whether the current update brought a cell that was already in the
+  // network closer to the power station
+  boolean shortened;
+  // (distance << 32 | cell) for every affected cell that has an unaffected
+  // neighbor to re-attach to
+  long[] seeds;
+  // the generation of the last update that marked every cell affected/queued
+  int[] affectedMark;
+  int[] queuedMark;
+  int generation;
+  int head;
+  int pending;
+
+  // The power station's network in depth-first preorder, from the cell
+  // where the power station was when it was labelled
+  int[] order;
+  int treeSize;
+  // the position of every cell in that order; the cells below a cell are
+  // the ones between its position and its end
+  int[] position;
+  int[] end;
+  // which of its directions every cell explores next while labelling
+  byte[] nextDir;
+  // the version of this grid that the labels are current for, and whether
+  // the network was a tree at that version
+  int treeVersion;
+  boolean isTree;
+
+  // The ends of the longest path through the power station's network, and
+  // the distance of every cell of the network from each of them (only kept
+  // while the network is a tree), as of the model version measuredVersion
+  int endA;
+  int endB;
+  int[] distA;
+  int[] distB;
+  boolean acyclic;
+  int measuredVersion;
+
+  PowerGrid(BoardModel model, BoardSearch search) {
+    this.model = model;
+    this.search = search;
+    this.radius = 0;
+    this.version = model.version - 1;
+    this.treeVersion = this.version;
+    this.isTree = false;
+    this.measuredVersion = this.version;
+    this.acyclic = false;
+  }
+
+  // Determines if the distances and power reflect the current model
+  boolean isCurrent() {
+    return this.version == this.model.version;
+  }
+
+  // Calculates the radius from the power station: half the length of the
+  // longest wire path through the power station's network, plus one
+  int calcRadius() {
+    int lastFound = this.search.search(this.model.powerIndex);
+    lastFound = this.search.search(lastFound);
+    return (this.search.depthOf(lastFound) / 2) + 1;
+  }
+
+  // EFFECT: Sets the distance and power of every cell with one search from
+  // the power station, given the radius
+  void spread(int radius) {
+    this.radius = radius;
+    this.search.search(this.model.powerIndex);
+    int poweredCount = 0;
+    for (int i = 0; i < this.model.size(); i++) {
+      // Cells the search does not reach have a distance of -1
+      int depth = this.search.depthOf(i);
+      this.model.dist[i] = depth;
+      this.model.powered[i] = depth != -1 && depth <= radius;
+      poweredCount += this.model.powered[i] ? 1 : 0;
+    }
+    this.model.poweredCount = poweredCount;
+    this.model.markAllChanged();
+    this.version = this.model.version;
+  }
+
+  // EFFECT: Measures the power station's network with calcRadius, and
+  // remembers the ends of the longest path it found and whether the network
+  // is a tree. For a tree, it also finds every cell's distance from both ends.
+  // Returns the radius
+  int measure() {
+    int radius = this.calcRadius();
+    // The last search started from one end of the longest path, and the
+    // last cell it found is as far away as the other end
+    this.endA = this.search.found(0);
+    this.endB = this.search.found(this.search.count - 1);
+    int linkEnds = 0;
+    for (int k = 0; k < this.search.count; k++) {
+      for (int dir : BoardSearch.DIRECTIONS) {
+        if (this.model.linked(this.search.found(k), dir)) {
+          linkEnds++;
+        }
+      }
+    }
+    this.acyclic = linkEnds == 2 * (this.search.count - 1);
+    if (this.acyclic) {
+      if (this.distA == null) {
+        this.distA = new int[this.model.size()];
+        this.distB = new int[this.model.size()];
+      }
+      this.copyDepths(this.distA);
+      this.search.search(this.endB);
+      this.copyDepths(this.distB);
+    }
+    this.measuredVersion = this.model.version;
+    return radius;
+  }
+
+  // EFFECT: Copies the depth of every cell the last search reached
+  void copyDepths(int[] into) {
+    for (int k = 0; k < this.search.count; k++) {
+      int cell = this.search.found(k);
+      into[cell] = this.search.depthOf(cell);
+    }
+  }
+
+  // EFFECT: Recomputes the radius, distances and power from scratch
+  void recompute() {
+    this.spread(this.measure());
+  }
+
+  // EFFECT: Updates the distances and power after the cell at the given index
+  // was rotated away from the given wiring mask
+  // Falls back to a full update if anything else changed since the last one
+  void rotated(int cell, int oldMask) {
+    if (this.version != this.model.version - 1) {
+      this.recompute();
+      return;
+    }
+    boolean measured = this.measuredVersion == this.version;
+    this.prepare();
+    int newMask = this.model.wiring(cell);
+
+    // Links that were cut: retract the cells whose shortest path used them.
+    // Any change to the power station's network can change the radius too.
+    boolean changed = false;
+    for (int dir : BoardSearch.DIRECTIONS) {
+      int other = this.model.neighbor(cell, dir);
+      if (other != -1 && this.model.hasWire(other, BoardModel.opposite(dir))
+          && (oldMask & dir) != 0 && (newMask & dir) == 0) {
+        changed = changed || this.model.dist[cell] != -1;
+        this.cut(cell, other);
+      }
+    }
+    this.retract();
+    this.repair();
+    // The longest path can only be checked locally if the network was a
+    // tree, the cells retracted were simply cut off (in a tree they have no
+    // other way back), and both ends of the path are still in the network
+    boolean local = measured && this.acyclic && this.model.dist[this.endA] != -1
+        && this.model.dist[this.endB] != -1;
+    for (int k = 0; k < this.affectedCount; k++) {
+      local = local && this.model.dist[this.affected[k]] == -1;
+    }
+    // Every new link must lead off what is left of the tree, or it closes a
+    // loop: a rotated cell in the tree may not link to another cell of it,
+    // and a rotated cell off the tree may only link to one
+    int networkLinks = 0;
+    for (int dir : BoardSearch.DIRECTIONS) {
+      int other = this.model.neighbor(cell, dir);
+      if (other != -1 && this.model.hasWire(other, BoardModel.opposite(dir))
+          && (oldMask & dir) == 0 && (newMask & dir) != 0 && this.model.dist[other] != -1) {
+        networkLinks++;
+      }
+    }
+    local = local && networkLinks <= (this.model.dist[cell] == -1 ? 1 : 0);
+
+    // Links that were made: extend power across them
+    for (int dir : BoardSearch.DIRECTIONS) {
+      int other = this.model.neighbor(cell, dir);
+      if (other != -1 && this.model.hasWire(other, BoardModel.opposite(dir))
+          && (oldMask & dir) == 0 && (newMask & dir) != 0) {
+        changed = changed || this.model.dist[cell] != -1 || this.model.dist[other] != -1;
+        this.relax(cell, other);
+        this.relax(other, cell);
+      }
+    }
+    this.extend();
+
+    if (changed && local && !this.shortened && this.keepsLongestPath()) {
+      // The longest path, and so the radius, are the same
+      this.measuredVersion = this.model.version;
+    }
+    else if (changed) {
+      int newRadius = this.measure();
+      // The last search of calcRadius covered the power station's network,
+      // which are the only cells a new radius can turn on or off
+      if (newRadius != this.radius) {
+        this.radius = newRadius;
+        for (int k = 0; k < this.search.count; k++) {
+          int i = this.search.found(k);
+          this.model.setPowered(i, this.model.dist[i] <= newRadius);
+        }
+      }
+    }
+    else if (measured) {
+      this.measuredVersion = this.model.version;
+    }
+    this.version = this.model.version;
+  }
+
+  // Determines if the power station's network, which was a tree before the
+  // last rotation cut cells off it and joined cells to it, is still a tree
+  // whose longest path runs between endA and endB. The cells that joined hang
+  // from a single cell of the rest of the tree, so any longer path would
+  // have to go into them from there: it is enough to know how far they reach
+  // from that cell, and the longest path among them.
+  // EFFECT: If so, gives the cells that joined their distances from both ends
+  boolean keepsLongestPath() {
+    if (this.joinedCount == 0) {
+      // Cutting cells off a tree cannot make any path longer
+      return true;
+    }
+    // Every joined cell needs exactly one link up to the cell it hangs
+    // from, or the network has a loop
+    int inner = 0;
+    int outer = 0;
+    int anchor = -1;
+    for (int k = 0; k < this.joinedCount; k++) {
+      int cell = this.joined[k];
+      for (int dir : BoardSearch.DIRECTIONS) {
+        if (this.model.linked(cell, dir)) {
+          int other = this.model.neighbor(cell, dir);
+          if (this.joinedMark[other] == this.generation) {
+            inner++;
+          }
+          else if (anchor == -1 || anchor == other) {
+            anchor = other;
+            outer++;
+          }
+          else {
+            return false;
+          }
+        }
+      }
+    }
+    if (anchor == -1 || inner / 2 + outer != this.joinedCount) {
+      return false;
+    }
+
+    // The farthest cell of the tree from the anchor is one of the ends
+    int longest = this.distA[this.endB];
+    int farthest = this.hangFrom(anchor, anchor);
+    if (Math.max(this.distA[anchor], this.distB[anchor]) + this.hang[farthest] > longest
+        || this.hang[this.hangFrom(farthest, anchor)] > longest) {
+      return false;
+    }
+    this.hangFrom(anchor, anchor);
+    for (int k = 0; k < this.joinedCount; k++) {
+      int cell = this.joined[k];
+      this.distA[cell] = this.distA[anchor] + this.hang[cell];
+      this.distB[cell] = this.distB[anchor] + this.hang[cell];
+    }
+    return true;
+  }
+
+  // EFFECT: Sets the distance from start of every cell that joined the
+  // network and of the cell they hang from, going only through them
+  // Returns the last cell reached, which is as far from start as any
+  int hangFrom(int start, int anchor) {
+    for (int k = 0; k < this.joinedCount; k++) {
+      this.hang[this.joined[k]] = -1;
+    }
+    this.hang[anchor] = -1;
+    this.hang[start] = 0;
+    this.work[0] = start;
+    int head = 0;
+    int tail = 1;
+    int last = start;
+    while (head < tail) {
+      last = this.work[head];
+      head++;
+      for (int dir : BoardSearch.DIRECTIONS) {
+        if (this.model.linked(last, dir)) {
+          int other = this.model.neighbor(last, dir);
+          if ((this.joinedMark[other] == this.generation || other == anchor)
+              && this.hang[other] == -1) {
+            this.hang[other] = this.hang[last] + 1;
+            this.work[tail] = other;
+            tail++;
+          }
+        }
+      }
+    }
+    return last;
+  }
+
+  // EFFECT: Updates the distances and power after the power station moved
+  // along a wire from the given cell
+  // Falls back to a full update if anything else changed since the last one,
+  // or if the network has a loop, so the move has no single far side
+  void moved(int from) {
+    int to = this.model.powerIndex;
+    int dir = this.model.directionTo(from, to);
+    if (this.version != this.model.version - 1 || dir == 0 || !this.model.linked(from, dir)) {
+      this.recompute();
+      return;
+    }
+    if (this.treeVersion != this.version) {
+      this.isTree = this.label(from);
+    }
+    if (!this.isTree) {
+      this.recompute();
+      this.treeVersion = this.version;
+      return;
+    }
+
+    // If to is below from, the cells below to get closer. Otherwise to is
+    // above from, and every cell except the ones below from gets closer.
+    int first;
+    int last;
+    int inside;
+    if (this.position[to] > this.position[from] && this.position[to] < this.end[from]) {
+      first = this.position[to];
+      last = this.end[to];
+      inside = -1;
+    }
+    else {
+      first = this.position[from];
+      last = this.end[from];
+      inside = 1;
+    }
+    int[] dist = this.model.dist;
+    for (int k = 0; k < this.treeSize; k++) {
+      int cell = this.order[k];
+      if (k >= first && k < last) {
+        dist[cell] += inside;
+      }
+      else {
+        dist[cell] -= inside;
+      }
+      this.model.setPowered(cell, dist[cell] <= this.radius);
+    }
+    // A tree's longest path does not depend on where the station is, so the
+    // radius stays the same
+    if (this.measuredVersion == this.version) {
+      this.measuredVersion = this.model.version;
+    }
+    this.version = this.model.version;
+    this.treeVersion = this.version;
+  }
+
+  // EFFECT: Labels the network of the given cell in depth-first preorder
+  // Returns false if the network has a loop
+  boolean label(int root) {
+    this.prepare();
+    int size = this.model.size();
+    if (this.order == null) {
+      this.order = new int[size];
+      this.position = new int[size];
+      this.end = new int[size];
+      this.nextDir = new byte[size];
+    }
+    // The work queue is the depth-first stack, from root down to the current cell
+    int[] stack = this.work;
+    int top = 0;
+    this.treeSize = 0;
+    stack[top] = root;
+    top++;
+    this.visitTree(root);
+
+    while (top > 0) {
+      int cell = stack[top - 1];
+      if (this.nextDir[cell] == BoardSearch.DIRECTIONS.length) {
+        this.end[cell] = this.treeSize;
+        top--;
+        continue;
+      }
+      int dir = BoardSearch.DIRECTIONS[this.nextDir[cell]];
+      this.nextDir[cell]++;
+      if (this.model.linked(cell, dir)) {
+        int other = this.model.neighbor(cell, dir);
+        if (top >= 2 && other == stack[top - 2]) {
+          // The wire back up to the parent
+          continue;
+        }
+        if (this.affectedMark[other] == this.generation) {
+          return false;
+        }
+        this.visitTree(other);
+        stack[top] = other;
+        top++;
+      }
+    }
+    return true;
+  }
+
+  // EFFECT: Gives the given cell the next position in the depth-first order
+  void visitTree(int cell) {
+    this.affectedMark[cell] = this.generation;
+    this.order[this.treeSize] = cell;
+    this.position[cell] = this.treeSize;
+    this.nextDir[cell] = 0;
+    this.treeSize++;
+  }
+
+  // EFFECT: Allocates the scratch storage if needed and starts a new generation
+  void prepare() {
+    int size = this.model.size();
+    if (this.work == null) {
+      this.work = new int[size];
+      this.affected = new int[size];
+      this.seeds = new long[size];
+      this.affectedMark = new int[size];
+      this.queuedMark = new int[size];
+      this.joined = new int[size];
+      this.joinedMark = new int[size];
+      this.hang = new int[size];
+      this.generation = 0;
+    }
+    this.generation++;
+    // Once the stamps wrap around, old stamps could match again
+    if (this.generation == 0) {
+      Arrays.fill(this.affectedMark, 0);
+      Arrays.fill(this.queuedMark, 0);
+      Arrays.fill(this.joinedMark, 0);
+      this.generation = 1;
+    }
+    this.affectedCount = 0;
+    this.joinedCount = 0;
+    this.shortened = false;
+    this.head = 0;
+    this.pending = 0;
+  }
+
+  // EFFECT: Adds the given cell to the back of the work queue, unless it is
+  // already waiting there
+  void enqueue(int cell) {
+    if (this.queuedMark[cell] != this.generation) {
+      this.queuedMark[cell] = this.generation;
+      this.work[(this.head + this.pending) % this.work.length] = cell;
+      this.pending++;
+    }
+  }
+
+  // EFFECT: Removes and returns the cell at the front of the work queue
+  int dequeue() {
+    int cell = this.work[this.head];
+    this.head = (this.head + 1) % this.work.length;
+    this.pending--;
+    this.queuedMark[cell] = 0;
+    return cell;
+  }
+
+  // EFFECT: Queues the farther end of a cut link, which may have lost its
+  // shortest path to the power station
+  void cut(int cell, int other) {
+    int[] dist = this.model.dist;
+    if (dist[cell] != -1 && dist[cell] != dist[other]) {
+      if (dist[cell] > dist[other]) {
+        this.enqueue(cell);
+      }
+      else {
+        this.enqueue(other);
+      }
+    }
+  }
+
+  // Determines if the given cell is still one step farther from the power
+  // station than some unaffected cell it is linked to
+  boolean supported(int cell) {
+    for (int dir : BoardSearch.DIRECTIONS) {
+      if (this.model.linked(cell, dir)) {
+        int other = this.model.neighbor(cell, dir);
+        if (this.affectedMark[other] != this.generation
+            && this.model.dist[other] == this.model.dist[cell] - 1) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  // EFFECT: Marks every queued cell that lost its support as affected, along
+  // with every cell that depended on it, following the old distances
+  void retract() {
+    int[] dist = this.model.dist;
+    while (this.pending > 0) {
+      int cell = this.dequeue();
+      if (this.affectedMark[cell] == this.generation || cell == this.model.powerIndex
+          || dist[cell] <= 0 || this.supported(cell)) {
+        continue;
+      }
+      this.affectedMark[cell] = this.generation;
+      this.affected[this.affectedCount] = cell;
+      this.affectedCount++;
+      for (int dir : BoardSearch.DIRECTIONS) {
+        if (this.model.linked(cell, dir)) {
+          int other = this.model.neighbor(cell, dir);
+          if (this.affectedMark[other] != this.generation && dist[other] == dist[cell] + 1) {
+            this.enqueue(other);
+          }
+        }
+      }
+    }
+  }
+
+  // EFFECT: Gives every affected cell its new distance: the affected region is
+  // searched outwards from the unaffected cells around it, nearest first
+  void repair() {
+    int[] dist = this.model.dist;
+    int seedCount = 0;
+    for (int k = 0; k < this.affectedCount; k++) {
+      int cell = this.affected[k];
+      int best = -1;
+      for (int dir : BoardSearch.DIRECTIONS) {
+        if (this.model.linked(cell, dir)) {
+          int other = this.model.neighbor(cell, dir);
+          if (this.affectedMark[other] != this.generation && dist[other] != -1
+              && (best == -1 || dist[other] + 1 < best)) {
+            best = dist[other] + 1;
+          }
+        }
+      }
+      if (best != -1) {
+        this.seeds[seedCount] = ((long) best << 32) | cell;
+        seedCount++;
+      }
+    }
+    for (int k = 0; k < this.affectedCount; k++) {
+      dist[this.affected[k]] = -1;
+    }
+    Arrays.sort(this.seeds, 0, seedCount);
+
+    // Merges the sorted seeds into a breadth-first search, always taking the
+    // nearer of the two, so every cell is reached at its shortest distance
+    int nextSeed = 0;
+    while (nextSeed < seedCount || this.pending > 0) {
+      int cell;
+      if (this.pending > 0 && (nextSeed == seedCount
+          || dist[this.work[this.head]] < (int) (this.seeds[nextSeed] >>> 32))) {
+        cell = this.dequeue();
+      }
+      else {
+        cell = (int) this.seeds[nextSeed];
+        int seedDist = (int) (this.seeds[nextSeed] >>> 32);
+        nextSeed++;
+        if (dist[cell] != -1) {
+          continue;
+        }
+        dist[cell] = seedDist;
+      }
+      for (int dir : BoardSearch.DIRECTIONS) {
+        if (this.model.linked(cell, dir)) {
+          int other = this.model.neighbor(cell, dir);
+          if (this.affectedMark[other] == this.generation && dist[other] == -1) {
+            dist[other] = dist[cell] + 1;
+            this.enqueue(other);
+          }
+        }
+      }
+    }
+
+    // Affected cells left at -1 were cut off from the power station. The
+    // rest are queued, since a new link may have brought them closer than
+    // before, and then their neighbors can get closer too.
+    for (int k = 0; k < this.affectedCount; k++) {
+      int cell = this.affected[k];
+      this.model.setPowered(cell, dist[cell] != -1 && dist[cell] <= this.radius);
+      if (dist[cell] != -1) {
+        this.enqueue(cell);
+      }
+    }
+  }
+
+  // EFFECT: Brings to closer to the power station through its link with from,
+  // if that is a shorter way there, and queues it (listing it as joined if it
+  // was not in the network, and noting that a distance got shorter if it was)
+  void relax(int from, int to) {
+    int[] dist = this.model.dist;
+    if (dist[from] != -1 && (dist[to] == -1 || dist[to] > dist[from] + 1)) {
+      if (dist[to] == -1) {
+        this.joined[this.joinedCount] = to;
+        this.joinedCount++;
+        this.joinedMark[to] = this.generation;
+      }
+      else {
+        this.shortened = true;
+      }
+      dist[to] = dist[from] + 1;
+      this.model.setPowered(to, dist[to] <= this.radius);
+      this.enqueue(to);
+    }
+  }
+
+  // EFFECT: Spreads the queued improvements to every cell they bring closer
+  void extend() {
+    while (this.pending > 0) {
+      int cell = this.dequeue();
+      for (int dir : BoardSearch.DIRECTIONS) {
+        if (this.model.linked(cell, dir)) {
+          this.relax(cell, this.model.neighbor(cell, dir));
+        }
+      }
+    }
+  }
+}
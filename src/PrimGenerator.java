@@ -0,0 +1,82 @@
+import java.util.*;
+
+// Scrambled random spanning trees, grown from the top left corner with
+// Prim's algorithm. The edges around the tree wait in a bucket queue with
+// one bucket per weight (weights are in Edge's range), so taking the lightest
+// one never needs a heap. Every edge is only ever queued from the side that
+// joined the tree first, so giving it a random weight when it is queued is
+// the same as weighing every edge up front, without an Edge object for any.
+class PrimGenerator extends ABoardGenerator {
+  final Random rand;
+  // the queued edges of every weight, as (cell << 2 | direction index), and
+  // how many there are
+  int[][] buckets;
+  int[] counts;
+
+  PrimGenerator(Random rand) {
+    this.rand = rand;
+  }
+
+  // Returns the name of this kind of board
+  public String name() {
+    return "Prim's Maze";
+  }
+
+  // EFFECT: Gives the engine a scrambled spanning tree
+  public void generate(GameEngine engine) {
+    engine.manualBoard();
+    this.growTree(engine.model);
+    engine.model.setPowerStation(0);
+    engine.rotatePieces();
+  }
+
+  // EFFECT: Wires the given empty board as a spanning tree
+  void growTree(BoardModel model) {
+    this.buckets = new int[Edge.WEIGHT_RANGE][16];
+    this.counts = new int[Edge.WEIGHT_RANGE];
+    boolean[] inTree = new boolean[model.size()];
+    inTree[0] = true;
+    this.queueEdges(model, inTree, 0);
+    int lightest = 0;
+    int joined = 1;
+    while (joined < model.size()) {
+      while (this.counts[lightest] == 0) {
+        lightest++;
+      }
+      this.counts[lightest]--;
+      int edge = this.buckets[lightest][this.counts[lightest]];
+      int cell = edge >>> 2;
+      int dir = BoardSearch.DIRECTIONS[edge & 3];
+      int other = model.neighbor(cell, dir);
+      if (!inTree[other]) {
+        model.addWire(cell, dir);
+        model.addWire(other, BoardModel.opposite(dir));
+        inTree[other] = true;
+        joined++;
+        lightest = Math.min(lightest, this.queueEdges(model, inTree, other));
+      }
+    }
+    this.buckets = null;
+    this.counts = null;
+  }
+
+  // EFFECT: Queues the edges from the given cell to its neighbors outside
+  // the tree, each with a random weight
+  // Returns the lightest weight queued (WEIGHT_RANGE if none)
+  int queueEdges(BoardModel model, boolean[] inTree, int cell) {
+    int lightest = Edge.WEIGHT_RANGE;
+    for (int k = 0; k < BoardSearch.DIRECTIONS.length; k++) {
+      int other = model.neighbor(cell, BoardSearch.DIRECTIONS[k]);
+      if (other != -1 && !inTree[other]) {
+        int weight = this.rand.nextInt(Edge.WEIGHT_RANGE);
+        if (this.counts[weight] == this.buckets[weight].length) {
+          this.buckets[weight] = Arrays.copyOf(this.buckets[weight], 2 * this.counts[weight]);
+        }
+        this.buckets[weight][this.counts[weight]] = (cell << 2) | k;
+        this.counts[weight]++;
+        lightest = Math.min(lightest, weight);
+      }
+    }
+    return lightest;
+  }
+}
@@ -0,0 +1,19 @@
+import java.util.*;
+
+// A function object comparator that helps sort the Edges by weight
+class SortByWeight implements Comparator<Edge> {
+
+  // Compares two given edges and returns -1 if the first is
+  // smaller, 1 if the first is greater, and 0 if they are equal.
+  public int compare(Edge edge1, Edge edge2) {
+    if (edge1.weight < edge2.weight) {
+      return -1;
+    }
+    else if (edge1.weight > edge2.weight) {
+      return 1;
+    }
+    else {
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+import java.awt.Color;
+import java.util.*;
+import javalib.worldimages.*;
+
+// Remembers the image of every kind of piece that has been drawn, so that each
+// one is built once and then shared by every piece and every frame. A piece's
+// image only depends on its wiring, whether it is powered, whether it holds
+// the power station and, when powered, the level of its color in the
+// gradient, so there are at most 16 x 2 x (levels + 1) images however big the
+// board is.
+class TileCache {
+  // the number of kinds of piece at each level: every wiring, with or without
+  // the power station
+  static final int KINDS = (BoardModel.ALL + 1) * 2;
+
+  // the colors of powered pieces
+  final GradientPalette palette;
+  // the image of every kind of piece, by key
+  final WorldImage[] tiles;
+  // how much bigger than usual the images are drawn
+  double scale;
+  // the number of images built so far
+  int built;
+
+  TileCache(GradientPalette palette) {
+    this.palette = palette;
+    this.tiles = new WorldImage[keys(palette)];
+    this.scale = 1;
+    this.built = 0;
+  }
+
+  // EFFECT: Draws the images at the given scale from now on, forgetting the
+  // ones drawn at another scale
+  void scaleTo(double scale) {
+    if (scale != this.scale) {
+      this.scale = scale;
+      Arrays.fill(this.tiles, null);
+    }
+  }
+
+  // Returns the number of different keys with the given palette
+  static int keys(GradientPalette palette) {
+    return (palette.levels + 1) * KINDS;
+  }
+
+  // Returns the key of the kind of piece in the cell at the given index:
+  // wiring * 2 + star for unpowered pieces, and after those the powered
+  // pieces of each level of the palette in turn
+  static int key(BoardModel model, int index, GradientPalette palette) {
+    int key = model.wiring(index) * 2 + (model.powerIndex == index ? 1 : 0);
+    if (model.powered[index]) {
+      key += (palette.level(model.dist[index]) + 1) * KINDS;
+    }
+    return key;
+  }
+
+  // Returns the wiring of the pieces with the given key
+  static int wiringOf(int key) {
+    return (key % KINDS) / 2;
+  }
+
+  // Determines if the pieces with the given key hold the power station
+  static boolean isStarOf(int key) {
+    return key % 2 == 1;
+  }
+
+  // Returns the color of the wires of the pieces with the given key
+  static Color colorOf(int key, GradientPalette palette) {
+    if (key < KINDS) {
+      return Color.GRAY;
+    }
+    return palette.colors[key / KINDS - 1];
+  }
+
+  // Returns the image of the given piece for the palette's current radius,
+  // building it if no piece like it was drawn before
+  WorldImage draw(GamePiece piece) {
+    return this.draw(piece.model, piece.index);
+  }
+
+  // Returns the image of the cell at the given index of the model for the
+  // palette's current radius; a GamePiece is only made to build an image that
+  // no piece like it was drawn with before
+  WorldImage draw(BoardModel model, int index) {
+    int key = key(model, index, this.palette);
+    if (this.tiles[key] == null) {
+      GamePiece piece = new GamePiece(model, model.rowOf(index), model.colOf(index));
+      WorldImage tile = piece.drawPiece(colorOf(key, this.palette));
+      if (this.scale != 1) {
+        tile = new ScaleImage(tile, this.scale);
+      }
+      this.tiles[key] = tile;
+      this.built++;
+    }
+    return this.tiles[key];
+  }
+}
@@ -0,0 +1,63 @@
+// Represents a partition of the cell indices [0, size) into disjoint sets,
+// used to detect cycles while building a minimum spanning tree
+class UnionFind {
+  // the parent of every element; an element that is its own parent is the
+  // representative of its set
+  final int[] parent;
+  // an upper bound on the height of the tree below every representative
+  final byte[] rank;
+  // the number of disjoint sets left
+  int sets;
+
+  UnionFind(int size) {
+    this.parent = new int[size];
+    this.rank = new byte[size];
+    this.sets = size;
+    // Initially links each element to itself
+    for (int i = 0; i < size; i++) {
+      this.parent[i] = i;
+    }
+  }
+
+  // EFFECT: Points every element on the path from x straight at its representative
+  // Finds the representative of x
+  int find(int x) {
+    int root = x;
+    while (this.parent[root] != root) {
+      root = this.parent[root];
+    }
+    while (this.parent[x] != root) {
+      int next = this.parent[x];
+      this.parent[x] = root;
+      x = next;
+    }
+    return root;
+  }
+
+  // Determines if a and b are in the same set
+  boolean sameSet(int a, int b) {
+    return this.find(a) == this.find(b);
+  }
+
+  // EFFECT: Merges the sets of a and b, hanging the shorter tree under the taller one
+  // Returns false if a and b were already in the same set
+  boolean union(int a, int b) {
+    int repA = this.find(a);
+    int repB = this.find(b);
+    if (repA == repB) {
+      return false;
+    }
+    if (this.rank[repA] < this.rank[repB]) {
+      this.parent[repA] = repB;
+    }
+    else if (this.rank[repA] > this.rank[repB]) {
+      this.parent[repB] = repA;
+    }
+    else {
+      this.parent[repB] = repA;
+      this.rank[repA]++;
+    }
+    this.sets--;
+    return true;
+  }
+}